@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Searching a batch of random needles: one search at a time against the lockstep groups, the parallel split,
+// and the galloping search over the same needles sorted. Scores are per needle.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class BatchBinarySearchBenchmark {
+
+	private static final MethodHandle BINARY_SEARCH = Entry.method("BinarySearch", "binarySearch", int.class,
+			long[].class, long.class);
+	private static final MethodHandle BATCHED = Entry.method("BatchBinarySearch", "binarySearchAll", void.class,
+			long[].class, long[].class, int[].class);
+	private static final MethodHandle SORTED = Entry.method("BatchBinarySearch", "binarySearchAllSorted", void.class,
+			long[].class, long[].class, int[].class);
+	private static final MethodHandle PARALLEL = Entry.method("BatchBinarySearch", "parallelBinarySearchAll",
+			void.class, long[].class, long[].class, int[].class);
+
+	private static final int NEEDLES = 1 << 16;
+
+	@Param({ "1000", "1000000", "16000000" })
+	public int size;
+
+	long[] haystack;
+	long[] needles;
+	long[] sortedNeedles;
+	int[] result;
+
+	@Setup
+	public void setUp() {
+
+		haystack = new long[size];
+		for (int i = 0; i < size; i++)
+			haystack[i] = 2L * i;
+
+		// Half of the needles are present.
+		SplittableRandom random = new SplittableRandom(7);
+		needles = new long[NEEDLES];
+		for (int i = 0; i < NEEDLES; i++)
+			needles[i] = random.nextLong(2L * size);
+		sortedNeedles = needles.clone();
+		Arrays.sort(sortedNeedles);
+		result = new int[NEEDLES];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public int[] oneAtATime() throws Throwable {
+
+		for (int i = 0; i < NEEDLES; i++)
+			result[i] = (int) BINARY_SEARCH.invokeExact(haystack, needles[i]);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public int[] batched() throws Throwable {
+
+		BATCHED.invokeExact(haystack, needles, result);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public int[] parallel() throws Throwable {
+
+		PARALLEL.invokeExact(haystack, needles, result);
+		return result;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NEEDLES)
+	public int[] sorted() throws Throwable {
+
+		SORTED.invokeExact(haystack, sortedNeedles, result);
+		return result;
+	}
+
+}
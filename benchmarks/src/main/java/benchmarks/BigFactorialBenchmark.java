@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Exact n! on BigInteger: the product tree, the same tree on the common ForkJoinPool, and the prime swing.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BigFactorialBenchmark {
+
+	private static final MethodHandle FACTORIAL = Entry.method("BigFactorial", "factorial", BigInteger.class,
+			int.class);
+	private static final MethodHandle PARALLEL = Entry.method("BigFactorial", "parallel", BigInteger.class,
+			int.class);
+	private static final MethodHandle PRIME_SWING = Entry.method("BigFactorial", "primeSwing", BigInteger.class,
+			int.class);
+
+	@Param({ "1000", "100000", "1000000" })
+	public int n;
+
+	@Benchmark
+	public BigInteger productTree() throws Throwable {
+		return (BigInteger) FACTORIAL.invokeExact(n);
+	}
+
+	@Benchmark
+	public BigInteger parallel() throws Throwable {
+		return (BigInteger) PARALLEL.invokeExact(n);
+	}
+
+	@Benchmark
+	public BigInteger primeSwing() throws Throwable {
+		return (BigInteger) PRIME_SWING.invokeExact(n);
+	}
+
+}
@@ -0,0 +1,122 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// One search for a random key: the branchless primitive search and the Eytzinger index against Arrays.binarySearch
+// at 1K, 1M and 100M keys, and the generic recursive search on boxed keys up to 1M (100M boxed keys do not fit in memory).
+// The 100M case needs about 2 GB of heap for the sorted array and the index.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinarySearchBenchmark {
+
+	@SuppressWarnings("rawtypes")
+	private static final MethodHandle GENERIC = Entry.method("BinarySearch", "binarySearch", int.class,
+			Comparable[].class, Comparable.class);
+	private static final MethodHandle PRIMITIVE = Entry.method("BinarySearch", "binarySearch", int.class, long[].class,
+			long.class);
+	private static final MethodHandle BUILD_INDEX = Entry.method("BinarySearch", "buildIndex",
+			Entry.type("EytzingerIndex"), long[].class);
+	private static final MethodHandle INDEX_OF = Entry.virtual("EytzingerIndex", "indexOf", int.class, long.class);
+
+	// Enough keys that their search paths do not stay in cache between two uses.
+	private static final int KEYS = 1 << 20;
+
+	// Half of the keys are present, half fall between two elements of 0, 2, 4, ...
+	private static long[] keys(int size) {
+
+		SplittableRandom random = new SplittableRandom(42);
+		long[] keys = new long[KEYS];
+		for (int i = 0; i < KEYS; i++)
+			keys[i] = random.nextLong(2L * size);
+		return keys;
+	}
+
+	@State(Scope.Thread)
+	public static class Primitive {
+
+		@Param({ "1000", "1000000", "100000000" })
+		public int size;
+
+		long[] sorted;
+		Object index;
+		long[] keys;
+		int next;
+
+		@Setup
+		public void setUp() throws Throwable {
+
+			sorted = new long[size];
+			for (int i = 0; i < size; i++)
+				sorted[i] = 2L * i;
+			index = BUILD_INDEX.invoke(sorted);
+			keys = keys(size);
+		}
+
+		long nextKey() {
+			return keys[next++ & (KEYS - 1)];
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Boxed {
+
+		@Param({ "1000", "1000000" })
+		public int size;
+
+		Long[] boxed;
+		long[] keys;
+		int next;
+
+		@Setup
+		public void setUp() {
+
+			boxed = new Long[size];
+			for (int i = 0; i < size; i++)
+				boxed[i] = 2L * i;
+			keys = keys(size);
+		}
+
+		long nextKey() {
+			return keys[next++ & (KEYS - 1)];
+		}
+	}
+
+	@Benchmark
+	public int generic(Boxed state) throws Throwable {
+		return (int) GENERIC.invokeExact((Comparable[]) state.boxed, (Comparable) Long.valueOf(state.nextKey()));
+	}
+
+	@Benchmark
+	public int primitive(Primitive state) throws Throwable {
+		return (int) PRIMITIVE.invokeExact(state.sorted, state.nextKey());
+	}
+
+	@Benchmark
+	public int eytzinger(Primitive state) throws Throwable {
+		return (int) INDEX_OF.invokeExact(state.index, state.nextKey());
+	}
+
+	@Benchmark
+	public int arraysBinarySearch(Primitive state) {
+		return Arrays.binarySearch(state.sorted, state.nextKey());
+	}
+
+}
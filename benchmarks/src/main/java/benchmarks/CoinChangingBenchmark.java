@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The exponential recursive makeChange against its memoized version; the recursion is only feasible for small change.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CoinChangingBenchmark {
+
+	private static final MethodHandle MAKE_CHANGE = Entry.method("CoinChanging", "makeChange", int.class, int[].class,
+			int.class);
+	private static final MethodHandle MAKE_CHANGE_MEMO = Entry.method("CoinChanging", "makeChangeMemo", int.class,
+			int[].class, int.class);
+
+	@Param({ "10", "16", "22" })
+	public int change;
+
+	private final int[] coins = { 1, 5, 10, 21, 25 };
+
+	@Benchmark
+	public int recursive() throws Throwable {
+		return (int) MAKE_CHANGE.invokeExact(coins, change);
+	}
+
+	@Benchmark
+	public int memoized() throws Throwable {
+		return (int) MAKE_CHANGE_MEMO.invokeExact(coins, change);
+	}
+
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Filling the change-making tables, against the ring-buffer count that keeps only max(coins) cells,
+// and against listing the coins for maxChange from checkpoints of the ring buffer.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DynamicProgrammingCoinChangingBenchmark {
+
+	private static final MethodHandle MAKE_CHANGE = Entry.method("DynamicProgrammingCoinChanging", "makeChange",
+			void.class, int[].class, int.class, int.class, int[].class, int[].class);
+	private static final MethodHandle MIN_COINS = Entry.method("CompactCoinChanging", "minCoins", int.class,
+			int[].class, int.class, int.class);
+	private static final MethodHandle COINS_FOR = Entry.method("CompactCoinChanging", "coinsFor", int[].class,
+			int[].class, int.class, int.class);
+
+	@Param({ "1000", "100000", "10000000" })
+	public int maxChange;
+
+	private final int[] coins = { 1, 5, 10, 21, 25 };
+	private int[] coinsUsed;
+	private int[] lastCoin;
+
+	@Setup
+	public void setUp() {
+		coinsUsed = new int[maxChange + 1];
+		lastCoin = new int[maxChange + 1];
+	}
+
+	@Benchmark
+	public int tables() throws Throwable {
+		MAKE_CHANGE.invokeExact(coins, coins.length, maxChange, coinsUsed, lastCoin);
+		return coinsUsed[maxChange];
+	}
+
+	@Benchmark
+	public int ringBuffer() throws Throwable {
+		return (int) MIN_COINS.invokeExact(coins, coins.length, maxChange);
+	}
+
+	@Benchmark
+	public int[] checkpoints() throws Throwable {
+		return (int[]) COINS_FOR.invokeExact(coins, coins.length, maxChange);
+	}
+
+}
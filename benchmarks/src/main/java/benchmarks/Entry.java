@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Looks up the methods under test.
+ *
+ * - The algorithms live in the default package, which a class in a named package cannot import,
+ *   and JMH does not accept benchmarks in the default package.
+ * - So each benchmark holds its targets as static final MethodHandles; the JIT treats those as constants
+ *   and inlines invokeExact like a direct call.
+ */
+final class Entry {
+
+	private Entry() {
+	}
+
+	static Class<?> type(String className) {
+		try {
+			return Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// The public static method name of className with the given signature.
+	static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+		try {
+			return MethodHandles.publicLookup().findStatic(type(className), name,
+					MethodType.methodType(returnType, parameterTypes));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// The public constructor of className with the given parameters, returning an Object.
+	static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findConstructor(type(className),
+					MethodType.methodType(void.class, parameterTypes));
+			return handle.asType(handle.type().changeReturnType(Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	// The public instance method name of className, taking the receiver as an Object.
+	static MethodHandle virtual(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findVirtual(type(className), name,
+					MethodType.methodType(returnType, parameterTypes));
+			return handle.asType(handle.type().changeParameterType(0, Object.class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Factorial.factorial (a long, wrong beyond 20!) and the exact BigInteger product tree.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FactorialBenchmark {
+
+	private static final MethodHandle FACTORIAL = Entry.method("Factorial", "factorial", long.class, int.class);
+	private static final MethodHandle BIG_FACTORIAL = Entry.method("BigFactorial", "factorial", BigInteger.class,
+			int.class);
+
+	@Param({ "5", "20", "1000" })
+	public int n;
+
+	@Benchmark
+	public long factorial() throws Throwable {
+		return (long) FACTORIAL.invokeExact(n);
+	}
+
+	@Benchmark
+	public BigInteger bigFactorial() throws Throwable {
+		return (BigInteger) BIG_FACTORIAL.invokeExact(n);
+	}
+
+}
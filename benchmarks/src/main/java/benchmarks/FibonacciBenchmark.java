@@ -0,0 +1,86 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The exponential FibonacciNumber.fib against the loop and fast doubling on longs,
+// and, for huge n, fast doubling on BigInteger against a lookup in the cache of a Fibonacci engine.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FibonacciBenchmark {
+
+	private static final MethodHandle FIB = Entry.method("FibonacciNumber", "fib", long.class, int.class);
+	private static final MethodHandle ITERATIVE = Entry.method("Fibonacci", "iterative", long.class, long.class);
+	private static final MethodHandle FAST_DOUBLING = Entry.method("Fibonacci", "fastDoubling", long.class,
+			long.class);
+	private static final MethodHandle BIG = Entry.method("Fibonacci", "big", BigInteger.class, long.class);
+	private static final MethodHandle NEW_ENGINE = Entry.constructor("Fibonacci", int.class);
+	private static final MethodHandle GET = Entry.virtual("Fibonacci", "get", BigInteger.class, long.class);
+
+	@State(Scope.Thread)
+	public static class Small {
+
+		@Param({ "10", "20", "30" })
+		public long n;
+	}
+
+	@State(Scope.Thread)
+	public static class Huge {
+
+		@Param({ "1000", "100000", "1000000" })
+		public long n;
+
+		Object engine;
+
+		// Compute F(n) once, so that the benchmark measures the cache hit.
+		@Setup
+		public void setUp() throws Throwable {
+
+			engine = NEW_ENGINE.invoke(16);
+			GET.invoke(engine, n);
+		}
+	}
+
+	@Benchmark
+	public long recursive(Small state) throws Throwable {
+		return (long) FIB.invokeExact((int) state.n);
+	}
+
+	@Benchmark
+	public long iterative(Small state) throws Throwable {
+		return (long) ITERATIVE.invokeExact(state.n);
+	}
+
+	@Benchmark
+	public long fastDoubling(Small state) throws Throwable {
+		return (long) FAST_DOUBLING.invokeExact(state.n);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public BigInteger big(Huge state) throws Throwable {
+		return (BigInteger) BIG.invokeExact(state.n);
+	}
+
+	@Benchmark
+	public BigInteger cached(Huge state) throws Throwable {
+		return (BigInteger) GET.invokeExact(state.engine, state.n);
+	}
+
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// F(n) mod m for a batch of indexes around 10^18: one query at a time against the bulk query that shares the squares.
+// A small modulus goes through the cached Pisano period, a large one does not. Scores are per index.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class FibonacciModBenchmark {
+
+	private static final MethodHandle FIB_MOD = Entry.method("FibonacciMod", "fibMod", long.class, long.class,
+			long.class);
+	private static final MethodHandle FIB_MOD_ALL = Entry.method("FibonacciMod", "fibMod", long[].class,
+			long[].class, long.class);
+
+	private static final int INDEXES = 1 << 10;
+
+	@Param({ "1000", "999999999989" })
+	public long m;
+
+	long[] ns;
+
+	@Setup
+	public void setUp() {
+
+		ns = new long[INDEXES];
+		for (int i = 0; i < INDEXES; i++)
+			ns[i] = 1_000_000_000_000_000_000L - 12345L * i;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INDEXES)
+	public void oneAtATime(Blackhole blackhole) throws Throwable {
+
+		for (int i = 0; i < INDEXES; i++)
+			blackhole.consume((long) FIB_MOD.invokeExact(ns[i], m));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INDEXES)
+	public long[] bulk() throws Throwable {
+		return (long[]) FIB_MOD_ALL.invokeExact(ns, m);
+	}
+
+}
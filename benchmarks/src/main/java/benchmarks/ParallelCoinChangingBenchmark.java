@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The wavefront fill of the change-making tables on pools of 1 to 8 threads, against the sequential fill.
+// The coin set has a 1-cent coin, as every real one does; its 5 coins keep up to 5 threads busy in the wavefront.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParallelCoinChangingBenchmark {
+
+	private static final MethodHandle SEQUENTIAL = Entry.method("DynamicProgrammingCoinChanging", "makeChange",
+			void.class, int[].class, int.class, int.class, int[].class, int[].class);
+	private static final MethodHandle PARALLEL = Entry.method("ParallelCoinChanging", "makeChange", void.class,
+			int[].class, int.class, int.class, int[].class, int[].class, ForkJoinPool.class);
+
+	private static final int[] COINS = { 1, 5, 10, 21, 25 };
+
+	@State(Scope.Thread)
+	public static class Tables {
+
+		@Param({ "1000000", "20000000" })
+		public int maxChange;
+
+		int[] coinsUsed;
+		int[] lastCoin;
+
+		@Setup
+		public void setUp() {
+			coinsUsed = new int[maxChange + 1];
+			lastCoin = new int[maxChange + 1];
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Pool {
+
+		@Param({ "1", "2", "4", "8" })
+		public int threads;
+
+		ForkJoinPool pool;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			pool = new ForkJoinPool(threads);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public int sequential(Tables tables) throws Throwable {
+		SEQUENTIAL.invokeExact(COINS, COINS.length, tables.maxChange, tables.coinsUsed, tables.lastCoin);
+		return tables.coinsUsed[tables.maxChange];
+	}
+
+	@Benchmark
+	public int wavefront(Tables tables, Pool pool) throws Throwable {
+		PARALLEL.invokeExact(COINS, COINS.length, tables.maxChange, tables.coinsUsed, tables.lastCoin, pool.pool);
+		return tables.coinsUsed[tables.maxChange];
+	}
+
+}
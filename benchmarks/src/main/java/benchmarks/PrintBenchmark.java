@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// PrintInt.printInt and PrintNumber.printDecimal with System.out thrown away, against RadixFormatter into an array.
+// printDecimal is always base 10, so it only takes the number, not the base.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrintBenchmark {
+
+	private static final MethodHandle PRINT_INT = Entry.method("PrintInt", "printInt", void.class, long.class,
+			int.class);
+	private static final MethodHandle PRINT_DECIMAL = Entry.method("PrintNumber", "printDecimal", void.class,
+			long.class);
+	private static final MethodHandle FORMAT = Entry.method("RadixFormatter", "format", int.class, long.class,
+			int.class, byte[].class, int.class);
+
+	@State(Scope.Thread)
+	public static class Number {
+
+		@Param({ "7", "1369", "9223372036854775807" })
+		public long n;
+
+		private PrintStream console;
+		final byte[] buffer = new byte[80];
+
+		@Setup
+		public void setUp() {
+			console = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		}
+
+		@TearDown
+		public void tearDown() {
+			System.setOut(console);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Radix {
+
+		@Param({ "2", "10", "16" })
+		public int base;
+	}
+
+	@Benchmark
+	public void printInt(Number number, Radix radix) throws Throwable {
+		PRINT_INT.invokeExact(number.n, radix.base);
+	}
+
+	@Benchmark
+	public void printDecimal(Number number) throws Throwable {
+		PRINT_DECIMAL.invokeExact(number.n);
+	}
+
+	@Benchmark
+	public int radixFormatter(Number number, Radix radix) throws Throwable {
+		return (int) FORMAT.invokeExact(number.n, radix.base, number.buffer, 0);
+	}
+
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Reading a list of decimal longs, one per line, from memory: java.util.Scanner against the RadixParser Tokenizer
+// and against splitting the lines by hand and calling parse on each. Scores are per number.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RadixParserBenchmark {
+
+	private static final String TOKENIZER = "RadixParser$Tokenizer";
+
+	private static final MethodHandle NEW_TOKENIZER = Entry.constructor(TOKENIZER, ByteBuffer.class, int.class);
+	private static final MethodHandle HAS_NEXT = Entry.virtual(TOKENIZER, "hasNext", boolean.class);
+	private static final MethodHandle NEXT_LONG = Entry.virtual(TOKENIZER, "nextLong", long.class);
+	private static final MethodHandle PARSE = Entry.method("RadixParser", "parse", long.class, byte[].class, int.class,
+			int.class, int.class);
+
+	private static final int COUNT = 1 << 16;
+
+	// Small values have few digits, large ones up to 19.
+	@Param({ "small", "large" })
+	public String values;
+
+	String text;
+	byte[] bytes;
+
+	@Setup
+	public void setUp() {
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < COUNT; i++) {
+			long value = i * 0x9E3779B97F4A7C15L;
+			sb.append(values.equals("small") ? value % 100_000 : value).append('\n');
+		}
+		text = sb.toString();
+		bytes = text.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public long scanner() {
+
+		long sum = 0;
+		try (Scanner scanner = new Scanner(text)) {
+			while (scanner.hasNextLong())
+				sum += scanner.nextLong();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public long tokenizer() throws Throwable {
+
+		Object tokens = NEW_TOKENIZER.invokeExact(ByteBuffer.wrap(bytes), 10);
+		long sum = 0;
+		while ((boolean) HAS_NEXT.invokeExact(tokens))
+			sum += (long) NEXT_LONG.invokeExact(tokens);
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(COUNT)
+	public long parseLines() throws Throwable {
+
+		long sum = 0;
+		for (int i = 0, j; i < bytes.length; i = j + 1) {
+			for (j = i; bytes[j] != '\n'; j++)
+				;
+			sum += (long) PARSE.invokeExact(bytes, i, j, 10);
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// SumOfTheFirstNIntegers.s, one step per integer, against the closed form.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SumBenchmark {
+
+	private static final MethodHandle S = Entry.method("SumOfTheFirstNIntegers", "s", long.class, int.class);
+	private static final MethodHandle CLOSED_FORM = Entry.method("Series", "sumOfIntegers", long.class, long.class);
+
+	@Param({ "10", "1000", "100000" })
+	public int n;
+
+	@Benchmark
+	public long s() throws Throwable {
+		return (long) S.invokeExact(n);
+	}
+
+	@Benchmark
+	public long closedForm() throws Throwable {
+		return (long) CLOSED_FORM.invokeExact((long) n);
+	}
+
+}
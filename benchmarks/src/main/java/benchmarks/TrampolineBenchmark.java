@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The routines that run on Trampoline against the same recursion on the thread stack,
+// at depths the stack can take. printInt has System.out thrown away.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TrampolineBenchmark {
+
+	private static final MethodHandle FACTORIAL = Entry.method("Factorial", "factorial", long.class, int.class);
+	private static final MethodHandle RECURSIVE_FACTORIAL = Entry.method("Factorial", "recursiveFactorial",
+			long.class, int.class);
+	private static final MethodHandle S = Entry.method("SumOfTheFirstNIntegers", "s", long.class, int.class);
+	private static final MethodHandle RECURSIVE_S = Entry.method("SumOfTheFirstNIntegers", "recursiveS", long.class,
+			int.class);
+	private static final MethodHandle PRINT_INT = Entry.method("PrintInt", "printInt", void.class, long.class,
+			int.class);
+	private static final MethodHandle RECURSIVE_PRINT_INT = Entry.method("PrintInt", "recursivePrintInt", void.class,
+			long.class, int.class);
+
+	@State(Scope.Thread)
+	public static class Depth {
+
+		@Param({ "4", "32", "1000" })
+		public int n;
+	}
+
+	@State(Scope.Thread)
+	public static class Number {
+
+		// 3, 16 and 63 digits in base 2.
+		@Param({ "7", "65535", "9223372036854775807" })
+		public long n;
+
+		private PrintStream console;
+
+		@Setup
+		public void setUp() {
+			console = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		}
+
+		@TearDown
+		public void tearDown() {
+			System.setOut(console);
+		}
+	}
+
+	@Benchmark
+	public long factorial(Depth depth) throws Throwable {
+		return (long) FACTORIAL.invokeExact(depth.n);
+	}
+
+	@Benchmark
+	public long recursiveFactorial(Depth depth) throws Throwable {
+		return (long) RECURSIVE_FACTORIAL.invokeExact(depth.n);
+	}
+
+	@Benchmark
+	public long s(Depth depth) throws Throwable {
+		return (long) S.invokeExact(depth.n);
+	}
+
+	@Benchmark
+	public long recursiveS(Depth depth) throws Throwable {
+		return (long) RECURSIVE_S.invokeExact(depth.n);
+	}
+
+	@Benchmark
+	public void printInt(Number number) throws Throwable {
+		PRINT_INT.invokeExact(number.n, 2);
+	}
+
+	@Benchmark
+	public void recursivePrintInt(Number number) throws Throwable {
+		RECURSIVE_PRINT_INT.invokeExact(number.n, 2);
+	}
+
+}
@@ -0,0 +1,271 @@
+/**
+ *
+ * = interpolation search =
+ *
+ *  - Binary search always probes the middle of the range, whatever the keys look like.
+ *  - When we look up a name starting with "W" in a phone book, we do not open it in the middle;
+ *    we open it close to the end, because we expect the names to be spread out evenly.
+ *
+ *  - Interpolation search does the same thing.
+ *  - If the keys are spread evenly between a[low] and a[high], x should be near
+ *
+ *      low + (x - a[low]) / (a[high] - a[low]) * (high - low)
+ *
+ *  - On uniformly distributed keys this takes O(log log n) probes instead of O(log n).
+ *  - On skewed keys the guess can be very poor, and each probe may remove only one element: O(n) in the worst case.
+ *  - We therefore allow only about log n interpolation steps and then fall back to bisection,
+ *    so the worst case remains O(log n).
+ *
+ *
+ * = exponential search =
+ *
+ *  - Often we already know roughly where x is, for example because the previous lookup found a nearby key.
+ *  - Exponential (or galloping) search starts at such a hint and steps 1, 2, 4, 8... elements towards x
+ *    until it passes it, then bisects the last step.
+ *  - If x is d positions away from the hint, this takes O(log d) probes instead of O(log n).
+ *
+ *
+ * = choosing a strategy =
+ *
+ *  - An AdaptiveSearch samples the array once, when it is created.
+ *  - If the samples lie close to the straight line from the first to the last key, it uses interpolation search;
+ *    otherwise it uses binary search.
+ *  - Searches that pass a hint always use exponential search.
+ *
+ *  - Every search reports the number of array elements it read to a SearchStats object,
+ *    so the gain can be checked on real data.
+ *
+ *  - All searches return the index of the first element equal to x, like BinarySearch, or NOT_FOUND.
+ *
+ */
+public final class AdaptiveSearch {
+
+	public enum Strategy {
+		BINARY, INTERPOLATION, EXPONENTIAL
+	}
+
+	private static final int NOT_FOUND = -1;
+
+	// Number of points sampled to decide whether the keys are uniform.
+	private static final int SAMPLES = 64;
+
+	private final long[] a;
+	private final Strategy strategy;
+	private final SearchStats stats;
+
+	private AdaptiveSearch(long[] a, Strategy strategy, SearchStats stats) {
+		this.a = a;
+		this.strategy = strategy;
+		this.stats = stats;
+	}
+
+	// Sample the sorted array a and pick a strategy for it.
+	public static AdaptiveSearch of(long[] a) {
+
+		return new AdaptiveSearch(a, isNearlyUniform(a) ? Strategy.INTERPOLATION : Strategy.BINARY, new SearchStats());
+	}
+
+	public Strategy strategy() {
+		return strategy;
+	}
+
+	public SearchStats stats() {
+		return stats;
+	}
+
+	/**
+	 * Search with the strategy chosen for this array.
+	 *
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public int search(long x) {
+
+		return strategy == Strategy.INTERPOLATION ? interpolationSearch(a, x, stats) : binarySearch(a, x, stats);
+	}
+
+	/**
+	 * Search starting from a position where x is expected to be close.
+	 *
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public int search(long x, int hint) {
+
+		return exponentialSearch(a, x, hint, stats);
+	}
+
+	/**
+	 * Binary search that reports its probes to stats.
+	 *
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(long[] a, long x, SearchStats stats) {
+
+		int i = BinarySearch.insertionPoint(a, x);
+		stats.record(Strategy.BINARY, bisectProbes(a.length));
+		return found(a, i, x);
+	}
+
+	/**
+	 * Interpolation search that falls back to bisection after about log n steps.
+	 *
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int interpolationSearch(long[] a, long x, SearchStats stats) {
+
+		// Invariant: every element before low is smaller than x,
+		// and every element from high on is not.
+		int low = 0;
+		int high = a.length;
+		int probes = 0;
+		int budget = 32 - Integer.numberOfLeadingZeros(a.length);
+
+		while (low < high && budget-- > 0) {
+
+			long first = a[low];
+			long last = a[high - 1];
+			probes += 2;
+
+			if (x <= first) {
+				high = low;
+				break;
+			}
+			if (x > last) {
+				low = high;
+				break;
+			}
+
+			// Doubles cannot overflow on the differences of two longs.
+			double fraction = ((double) x - first) / ((double) last - first);
+			int guess = low + (int) (fraction * (high - 1 - low));
+			guess = Math.max(low, Math.min(guess, high - 1));
+
+			probes++;
+			if (a[guess] < x)
+				low = guess + 1;
+			else
+				high = guess;
+		}
+
+		if (low < high) {
+			probes += bisectProbes(high - low);
+			low = BinarySearch.insertionPoint(a, low, high, x);
+		}
+
+		stats.record(Strategy.INTERPOLATION, probes);
+		return found(a, low, x);
+	}
+
+	/**
+	 * Exponential search outward from hint.
+	 *
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int exponentialSearch(long[] a, long x, int hint, SearchStats stats) {
+
+		int n = a.length;
+		if (n == 0) {
+			stats.record(Strategy.EXPONENTIAL, 0);
+			return NOT_FOUND;
+		}
+
+		hint = Math.max(0, Math.min(hint, n - 1));
+		int probes = 1;
+		int low;
+		int high;
+
+		if (a[hint] < x) {
+			// Gallop right: the answer is after hint.
+			low = hint + 1;
+			high = low;
+			int step = 1;
+			while (high < n && a[high] < x) {
+				probes++;
+				low = high + 1;
+				high = low + step;
+				step <<= 1;
+				if (high > n || high < 0)
+					high = n;
+			}
+			if (high < n)
+				probes++;
+		} else {
+			// Gallop left: the answer is at or before hint.
+			high = hint;
+			low = high - 1;
+			int step = 1;
+			while (low >= 0 && a[low] >= x) {
+				probes++;
+				high = low;
+				low = high - 1 - step;
+				step <<= 1;
+			}
+			if (low >= 0)
+				probes++;
+			low = Math.max(low + 1, 0);
+		}
+
+		probes += bisectProbes(high - low);
+		int i = BinarySearch.insertionPoint(a, low, high, x);
+
+		stats.record(Strategy.EXPONENTIAL, probes);
+		return found(a, i, x);
+	}
+
+	// Number of elements BinarySearch.insertionPoint reads in a range of len elements.
+	private static int bisectProbes(int len) {
+		return len == 0 ? 0 : 33 - Integer.numberOfLeadingZeros(len - 1);
+	}
+
+	private static int found(long[] a, int i, long x) {
+		return (i < a.length && a[i] == x) ? i : NOT_FOUND;
+	}
+
+	// Do the keys lie close to the straight line from the first to the last key?
+	// We allow each sample to be off by 1/SAMPLES of the array.
+	private static boolean isNearlyUniform(long[] a) {
+
+		int n = a.length;
+		if (n < SAMPLES)
+			return false;
+
+		double first = a[0];
+		double spread = (double) a[n - 1] - first;
+		if (spread <= 0)
+			return false;
+
+		for (int s = 1; s < SAMPLES; s++) {
+			int i = (int) ((long) s * (n - 1) / SAMPLES);
+			double expected = (a[i] - first) / spread * (n - 1);
+			if (Math.abs(expected - i) > (double) n / SAMPLES)
+				return false;
+		}
+		return true;
+	}
+
+	public static void main(String[] args) {
+
+		int n = 1 << 20;
+		long[] uniform = new long[n];
+		long[] skewed = new long[n];
+		for (int i = 0; i < n; i++) {
+			uniform[i] = 10L * i + (i * 7919L) % 7;
+			skewed[i] = (long) i * i;
+		}
+
+		for (long[] a : new long[][] { uniform, skewed }) {
+			AdaptiveSearch search = of(a);
+			int hint = 0;
+			for (int i = 0; i < n; i += 7) {
+				search.search(a[i]);
+				hint = search.search(a[i], hint); // the previous answer is 7 positions back
+			}
+			SearchStats reference = new SearchStats();
+			for (int i = 0; i < n; i += 7)
+				binarySearch(a, a[i], reference);
+
+			System.out.println("chose " + search.strategy() + ": " + search.stats());
+			System.out.println("binary search: " + reference.averageProbes(Strategy.BINARY) + " probes/search");
+		}
+	}
+
+}
@@ -0,0 +1,220 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *
+ * = batched binary search =
+ *
+ *  - Searching for many keys one after the other serializes the memory latency:
+ *    each probe of a search depends on the previous one, so a search cannot start before the last one is done
+ *    and at most one cache miss is outstanding at any time.
+ *
+ *  - The searches themselves are independent of each other.
+ *  - The branch-free search in BinarySearch makes the same number of steps for every key (it depends only on the length of the array),
+ *    so we can run a group of searches in lockstep:
+ *
+ *    - At each level we advance every search in the group by one step.
+ *    - The loads of the different searches do not depend on each other, so the processor can keep all of their cache misses in flight at once.
+ *
+ *  - When the needles are sorted, each answer is at or after the previous one.
+ *    We start from the previous answer and gallop forward (1, 2, 4, 8... elements) until we pass the needle,
+ *    then bisect only that window.
+ *
+ *  - The parallel variant splits the needles in halves recursively and searches the pieces on a ForkJoinPool.
+ *
+ */
+public final class BatchBinarySearch {
+
+	private static final int NOT_FOUND = -1;
+
+	// Number of searches run in lockstep.
+	private static final int LANES = 8;
+
+	// Below this many needles the parallel variant searches sequentially.
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	private BatchBinarySearch() {
+	}
+
+	/**
+	 * Search the sorted haystack for every needle.
+	 * result[i] is set to the index where needles[i] is found or NOT_FOUND.
+	 */
+	public static void binarySearchAll(long[] haystack, long[] needles, int[] result) {
+
+		checkResult(needles, result);
+		binarySearchAll(haystack, needles, result, 0, needles.length);
+	}
+
+	// Search needles[from..to) in groups of LANES.
+	private static void binarySearchAll(long[] haystack, long[] needles, int[] result, int from, int to) {
+
+		int n = haystack.length;
+		if (n == 0) {
+			for (int i = from; i < to; i++)
+				result[i] = NOT_FOUND;
+			return;
+		}
+
+		int[] base = new int[LANES];
+		int i = from;
+
+		for (; i + LANES <= to; i += LANES) {
+
+			for (int j = 0; j < LANES; j++)
+				base[j] = 0;
+
+			int len = n;
+			while (len > 1) {
+				int half = len >>> 1;
+				for (int j = 0; j < LANES; j++) {
+					int b = base[j];
+					base[j] = (haystack[b + half - 1] < needles[i + j]) ? b + half : b;
+				}
+				len -= half;
+			}
+
+			for (int j = 0; j < LANES; j++) {
+				long x = needles[i + j];
+				int b = base[j];
+				if (haystack[b] < x)
+					b++;
+				result[i + j] = (b < n && haystack[b] == x) ? b : NOT_FOUND;
+			}
+		}
+
+		// Leftover needles that do not fill a group.
+		for (; i < to; i++)
+			result[i] = BinarySearch.binarySearch(haystack, needles[i]);
+	}
+
+	/**
+	 * Search the sorted haystack for needles that are themselves sorted in
+	 * ascending order. result[i] is set to the index where needles[i] is found or NOT_FOUND.
+	 */
+	public static void binarySearchAllSorted(long[] haystack, long[] needles, int[] result) {
+
+		checkResult(needles, result);
+
+		int n = haystack.length;
+		int low = 0; // every answer from here on is at or after low
+
+		for (int i = 0; i < needles.length; i++) {
+			long x = needles[i];
+
+			// Gallop forward from low until haystack[high - 1] >= x.
+			int step = 1;
+			int high = low;
+			while (high < n && haystack[high] < x) {
+				low = high + 1;
+				high = low + step;
+				step <<= 1;
+				if (high > n || high < 0)
+					high = n;
+			}
+
+			low = BinarySearch.insertionPoint(haystack, low, Math.min(high + 1, n), x);
+			result[i] = (low < n && haystack[low] == x) ? low : NOT_FOUND;
+		}
+	}
+
+	/**
+	 * Search the sorted haystack for every needle, splitting the needles across
+	 * the common ForkJoinPool.
+	 */
+	public static void parallelBinarySearchAll(long[] haystack, long[] needles, int[] result) {
+
+		parallelBinarySearchAll(haystack, needles, result, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Search the sorted haystack for every needle, splitting the needles across
+	 * the given pool.
+	 */
+	public static void parallelBinarySearchAll(long[] haystack, long[] needles, int[] result, ForkJoinPool pool) {
+
+		checkResult(needles, result);
+		pool.invoke(new SearchTask(haystack, needles, result, 0, needles.length));
+	}
+
+	private static final class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] haystack;
+		private final long[] needles;
+		private final int[] result;
+		private final int from;
+		private final int to;
+
+		SearchTask(long[] haystack, long[] needles, int[] result, int from, int to) {
+			this.haystack = haystack;
+			this.needles = needles;
+			this.result = result;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from <= PARALLEL_THRESHOLD) {
+				binarySearchAll(haystack, needles, result, from, to);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			invokeAll(new SearchTask(haystack, needles, result, from, mid),
+					new SearchTask(haystack, needles, result, mid, to));
+		}
+	}
+
+	private static void checkResult(long[] needles, int[] result) {
+
+		if (result.length < needles.length)
+			throw new IllegalArgumentException(
+					"result has length " + result.length + " but there are " + needles.length + " needles");
+	}
+
+	public static void main(String[] args) {
+
+		long[] haystack = { 1, 3, 4, 5, 6, 7 };
+		long[] needles = { 6, 2, 7, 1, 8, 3, 0, 5, 4, 9 };
+		int[] result = new int[needles.length];
+		binarySearchAll(haystack, needles, result);
+		System.out.println(Arrays.toString(result)); // [4, -1, 5, 0, -1, 1, -1, 3, 2, -1]
+
+		// Every variant against one search per needle, with more needles than one group or one parallel task.
+		int n = 1 << 16;
+		haystack = new long[n];
+		for (int i = 0; i < n; i++)
+			haystack[i] = 2L * i;
+
+		int queries = 1 << 16;
+		needles = new long[queries];
+		long seed = 7;
+		for (int i = 0; i < queries; i++) {
+			seed = seed * 6364136223846793005L + 1442695040888963407L;
+			needles[i] = Long.remainderUnsigned(seed, 2L * n + 2) - 1;
+		}
+		int[] expected = new int[queries];
+		for (int i = 0; i < queries; i++)
+			expected[i] = BinarySearch.binarySearch(haystack, needles[i]);
+
+		binarySearchAll(haystack, needles, result = new int[queries]);
+		boolean same = Arrays.equals(result, expected);
+		parallelBinarySearchAll(haystack, needles, result = new int[queries]);
+		same &= Arrays.equals(result, expected);
+
+		Arrays.sort(needles);
+		for (int i = 0; i < queries; i++)
+			expected[i] = BinarySearch.binarySearch(haystack, needles[i]);
+		binarySearchAllSorted(haystack, needles, result = new int[queries]);
+		same &= Arrays.equals(result, expected);
+		System.out.println("same answers as BinarySearch: " + same); // true
+
+		// BatchBinarySearchBenchmark in the benchmarks module compares the variants with one search at a time.
+	}
+
+}
@@ -0,0 +1,248 @@
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * = large factorials =
+ *
+ *  - Factorial.factorial returns a long, and 21! is already larger than Long.MAX_VALUE,
+ *    so every answer after 20! is wrong (the multiplications silently wrap around).
+ *  - It also makes n nested calls, so a large enough n overflows the stack.
+ *
+ *  - exact(n) returns n! as a long for n <= 20 from a table, and throws ArithmeticException for larger n.
+ *
+ *
+ * = binary splitting =
+ *
+ *  - Multiplying 1 * 2 * 3 * ... * n one factor at a time multiplies a huge number by a small one n times.
+ *  - The cost of a BigInteger multiplication grows with the size of the operands,
+ *    and the fast algorithms (Karatsuba, Toom-Cook) only help when both operands are large.
+ *
+ *  - Instead we split the range in two halves, multiply each half recursively and then multiply the two results:
+ *
+ *      product(1..8) = product(1..4) * product(5..8)
+ *                    = (product(1..2) * product(3..4)) * (product(5..6) * product(7..8))
+ *
+ *  - This is a product tree; the two operands of each multiplication have about the same size,
+ *    and the recursion is only log n deep.
+ *  - At the leaves, small factors are multiplied together in a long until it would overflow.
+ *
+ *  - The two halves of the tree are independent, so parallel(n) computes them as ForkJoin tasks.
+ *
+ *
+ * = prime swing =
+ *
+ *  - Luschny's algorithm writes n! = ((n/2)!)^2 * swing(n), where swing(n) = n! / ((n/2)!)^2.
+ *  - swing(n) is a product of primes: a prime p <= n appears in it with exponent
+ *    (n/p mod 2) + (n/p^2 mod 2) + ..., which is 0 or 1 for most primes.
+ *  - So n! is computed from (n/2)! with one squaring and one product of primes,
+ *    which is much less multiplication work than the full product.
+ *
+ */
+public final class BigFactorial {
+
+	// Largest n for which n! fits in a long.
+	public static final int MAX_LONG_N = 20;
+
+	private static final long[] LONG_FACTORIALS = new long[MAX_LONG_N + 1];
+
+	static {
+		LONG_FACTORIALS[0] = 1;
+		for (int i = 1; i <= MAX_LONG_N; i++)
+			LONG_FACTORIALS[i] = LONG_FACTORIALS[i - 1] * i;
+	}
+
+	// Ranges shorter than this are multiplied sequentially by the parallel version.
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	private BigFactorial() {
+	}
+
+	// Return n! as a long.
+	// Throws ArithmeticException if n > 20.
+	public static long exact(int n) {
+
+		check(n);
+		if (n > MAX_LONG_N)
+			throw new ArithmeticException(n + "! does not fit in a long");
+		return LONG_FACTORIALS[n];
+	}
+
+	// Return n! computed with a product tree.
+	public static BigInteger factorial(int n) {
+
+		check(n);
+		if (n <= MAX_LONG_N)
+			return BigInteger.valueOf(LONG_FACTORIALS[n]);
+		return product(2, n);
+	}
+
+	// Return n! computed with a product tree whose halves run on the common ForkJoinPool.
+	public static BigInteger parallel(int n) {
+
+		return parallel(n, ForkJoinPool.commonPool());
+	}
+
+	public static BigInteger parallel(int n, ForkJoinPool pool) {
+
+		check(n);
+		if (n <= MAX_LONG_N)
+			return BigInteger.valueOf(LONG_FACTORIALS[n]);
+		return pool.invoke(new ProductTask(2, n));
+	}
+
+	// Return n! computed with Luschny's prime swing algorithm.
+	public static BigInteger primeSwing(int n) {
+
+		check(n);
+		if (n <= MAX_LONG_N)
+			return BigInteger.valueOf(LONG_FACTORIALS[n]);
+
+		int[] primes = primesUpTo(n);
+		return primeSwing(n, primes);
+	}
+
+	// Hidden recursive routine: n! = ((n/2)!)^2 * swing(n).
+	private static BigInteger primeSwing(int n, int[] primes) {
+
+		if (n <= MAX_LONG_N)
+			return BigInteger.valueOf(LONG_FACTORIALS[n]);
+
+		BigInteger half = primeSwing(n / 2, primes);
+		return half.multiply(half).multiply(swing(n, primes));
+	}
+
+	// swing(n) = n! / ((n/2)!)^2 as a product of prime powers.
+	private static BigInteger swing(int n, int[] primes) {
+
+		long[] factors = new long[primes.length];
+		int count = 0;
+
+		for (int p : primes) {
+			if (p > n)
+				break;
+
+			long power = 1;
+			for (long q = n / p; q > 0; q /= p)
+				if ((q & 1) != 0)
+					power *= p; // at most n, since p^k <= n for every counted k
+			if (power > 1)
+				factors[count++] = power;
+		}
+		return product(factors, 0, count);
+	}
+
+	// Hidden recursive routine: the product of lo..hi.
+	private static BigInteger product(int lo, int hi) {
+
+		if (hi - lo < 32) {
+			BigInteger result = BigInteger.ONE;
+			long p = 1;
+			for (long i = lo; i <= hi; i++) {
+				if (p > Long.MAX_VALUE / i) {
+					result = result.multiply(BigInteger.valueOf(p));
+					p = 1;
+				}
+				p *= i;
+			}
+			return result.multiply(BigInteger.valueOf(p));
+		}
+
+		int mid = (lo + hi) >>> 1;
+		return product(lo, mid).multiply(product(mid + 1, hi));
+	}
+
+	// Hidden recursive routine: the product of factors[from..to).
+	private static BigInteger product(long[] factors, int from, int to) {
+
+		if (to - from < 32) {
+			BigInteger result = BigInteger.ONE;
+			long p = 1;
+			for (int i = from; i < to; i++) {
+				if (p > Long.MAX_VALUE / factors[i]) {
+					result = result.multiply(BigInteger.valueOf(p));
+					p = 1;
+				}
+				p *= factors[i];
+			}
+			return result.multiply(BigInteger.valueOf(p));
+		}
+
+		int mid = (from + to) >>> 1;
+		return product(factors, from, mid).multiply(product(factors, mid, to));
+	}
+
+	private static final class ProductTask extends RecursiveTask<BigInteger> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int lo;
+		private final int hi;
+
+		ProductTask(int lo, int hi) {
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected BigInteger compute() {
+
+			if (hi - lo < PARALLEL_THRESHOLD)
+				return product(lo, hi);
+
+			int mid = (lo + hi) >>> 1;
+			ProductTask left = new ProductTask(lo, mid);
+			left.fork();
+			BigInteger right = new ProductTask(mid + 1, hi).compute();
+			return left.join().multiply(right);
+		}
+	}
+
+	// Sieve of Eratosthenes.
+	private static int[] primesUpTo(int n) {
+
+		boolean[] composite = new boolean[n + 1];
+		int count = 0;
+		for (int i = 2; i <= n; i++) {
+			if (composite[i])
+				continue;
+			count++;
+			for (long j = (long) i * i; j <= n; j += i)
+				composite[(int) j] = true;
+		}
+
+		int[] primes = new int[count];
+		for (int i = 2, k = 0; i <= n; i++)
+			if (!composite[i])
+				primes[k++] = i;
+		return primes;
+	}
+
+	private static void check(int n) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative factorial argument " + n);
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println(exact(20));
+		System.out.println(factorial(50));
+		System.out.println(primeSwing(50));
+
+		// The three engines against a plain running product.
+		boolean same = true;
+		BigInteger product = BigInteger.ONE;
+		for (int n = 0; n <= 3000; n++) {
+			if (n > 0)
+				product = product.multiply(BigInteger.valueOf(n));
+			if (n % 97 == 0 || n <= 64)
+				same &= product.equals(factorial(n)) && product.equals(parallel(n)) && product.equals(primeSwing(n));
+		}
+		System.out.println("same products: " + same); // true
+
+		// BigFactorialBenchmark in the benchmarks module compares the engines up to 1000000!.
+	}
+
+}
@@ -25,6 +25,28 @@
  *  
  *  - Note that the running time, in terms of Big-Oh, is unchanged from the nonrecursive implementation because we are performing the same work.
  *  - In practice, the running time would be expected to be slightly larger because of the hidden costs of recursion. 
+ *  
+ *  
+ * = primitive binary search =
+ * 
+ *  - The generic routine works on Comparable objects, so every probe follows a reference and makes a virtual compareTo call,
+ *    twice per level.
+ *  - For int, long, double and char arrays there are iterative overloads instead.
+ *  
+ *  - Each level makes exactly one comparison and keeps either the lower or the upper half of the range.
+ *  - Since the number of levels depends only on the length of the range, the loop has no data-dependent branch
+ *    and the JIT can use a conditional move instead of a branch that is mispredicted half of the time.
+ *  - The equality test is done once, after the loop.
+ *  
+ *  - insertionPoint returns the index of the first element that is not smaller than x (the lower bound),
+ *    which is where x would be inserted to keep the array sorted.
+ *  - Double arrays are compared with <, so they must not contain NaN.
+ *
+ *  - Java has no generics over primitive types, so the int, double and char versions are copies of the long version
+ *    with the element type changed, and nothing else.
+ *    The long version is the template: change it first, then repeat the change in the three copies.
+ *    BinarySearchTest checks every copy against Arrays.binarySearch, so a copy that drifts fails there.
+ *  - The comparison of the generic search with the primitive ones is BinarySearchBenchmark in the benchmarks module.
  *
  */
 public class BinarySearch {
@@ -41,7 +63,16 @@ public class BinarySearch {
 
 	public static <AnyType extends Comparable<? super AnyType>> int binarySearch(AnyType[] a, AnyType x) {
 
-		return binarySearch(a, x, 0, (a.length - 1));
+		if (!RecursionMetrics.ENABLED)
+			return binarySearch(a, x, 0, (a.length - 1));
+
+		// Measure the whole search as one invocation.
+		RecursionProbe probe = RecursionMetrics.begin("BinarySearch.binarySearch", a.length);
+		try {
+			return binarySearch(a, x, 0, (a.length - 1), probe, 1);
+		} finally {
+			probe.end();
+		}
 
 	}
 
@@ -67,11 +98,308 @@ public class BinarySearch {
 			return mid;
 	}
 
+	/**
+	 * The same recursion, reporting every call and its depth to probe.
+	 */
+	private static <AnyType extends Comparable<? super AnyType>> int binarySearch(AnyType[] a, AnyType x, int low,
+			int high, RecursionProbe probe, int depth) {
+
+		probe.enter(depth);
+		if (low > high)
+			return NOT_FOUND;
+
+		int mid = (low + high) / 2;
+
+		if (a[mid].compareTo(x) < 0)
+			return binarySearch(a, x, mid + 1, high, probe, depth + 1);
+		else if (a[mid].compareTo(x) > 0)
+			return binarySearch(a, x, low, mid - 1, probe, depth + 1);
+		else
+			return mid;
+	}
+
+	/**
+	 * Perform a binary search on a sorted int array using one comparison per level.
+	 * This is a driver that searches the whole array.
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(int[] a, int x) {
+
+		return binarySearch(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Perform a binary search on the range fromIndex (inclusive) to toIndex (exclusive).
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(int[] a, int fromIndex, int toIndex, int x) {
+
+		int i = insertionPoint(a, fromIndex, toIndex, x);
+		return (i < toIndex && a[i] == x) ? i : NOT_FOUND;
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep a sorted.
+	 * 
+	 * @return index of the first element that is not smaller than x, or a.length.
+	 */
+	public static int insertionPoint(int[] a, int x) {
+
+		return insertionPoint(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep the range fromIndex (inclusive) to
+	 * toIndex (exclusive) sorted.
+	 * 
+	 * @return index of the first element in the range that is not smaller than x, or toIndex.
+	 * 
+	 * Copy of insertionPoint(long[], int, int, long); keep the two in sync.
+	 */
+	public static int insertionPoint(int[] a, int fromIndex, int toIndex, int x) {
+
+		rangeCheck(a.length, fromIndex, toIndex);
+
+		int base = fromIndex;
+		int len = toIndex - fromIndex;
+		if (len == 0)
+			return fromIndex;
+
+		// The loop body has no data-dependent branch: the JIT turns the
+		// select into a conditional move, and the trip count depends only on len.
+		while (len > 1) {
+			int half = len >>> 1;
+			base = (a[base + half - 1] < x) ? base + half : base;
+			len -= half;
+		}
+		return (a[base] < x) ? base + 1 : base;
+
+	}
+
+	/**
+	 * Perform a binary search on a sorted long array using one comparison per level.
+	 * This is a driver that searches the whole array.
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(long[] a, long x) {
+
+		return binarySearch(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Perform a binary search on the range fromIndex (inclusive) to toIndex (exclusive).
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(long[] a, int fromIndex, int toIndex, long x) {
+
+		int i = insertionPoint(a, fromIndex, toIndex, x);
+		return (i < toIndex && a[i] == x) ? i : NOT_FOUND;
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep a sorted.
+	 * 
+	 * @return index of the first element that is not smaller than x, or a.length.
+	 */
+	public static int insertionPoint(long[] a, long x) {
+
+		return insertionPoint(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep the range fromIndex (inclusive) to
+	 * toIndex (exclusive) sorted.
+	 * 
+	 * @return index of the first element in the range that is not smaller than x, or toIndex.
+	 * 
+	 * The template of the int, double and char versions.
+	 */
+	public static int insertionPoint(long[] a, int fromIndex, int toIndex, long x) {
+
+		rangeCheck(a.length, fromIndex, toIndex);
+
+		int base = fromIndex;
+		int len = toIndex - fromIndex;
+		if (len == 0)
+			return fromIndex;
+
+		// The loop body has no data-dependent branch: the JIT turns the
+		// select into a conditional move, and the trip count depends only on len.
+		while (len > 1) {
+			int half = len >>> 1;
+			base = (a[base + half - 1] < x) ? base + half : base;
+			len -= half;
+		}
+		return (a[base] < x) ? base + 1 : base;
+
+	}
+
+	/**
+	 * Perform a binary search on a sorted double array using one comparison per level.
+	 * This is a driver that searches the whole array.
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(double[] a, double x) {
+
+		return binarySearch(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Perform a binary search on the range fromIndex (inclusive) to toIndex (exclusive).
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(double[] a, int fromIndex, int toIndex, double x) {
+
+		int i = insertionPoint(a, fromIndex, toIndex, x);
+		return (i < toIndex && a[i] == x) ? i : NOT_FOUND;
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep a sorted.
+	 * 
+	 * @return index of the first element that is not smaller than x, or a.length.
+	 */
+	public static int insertionPoint(double[] a, double x) {
+
+		return insertionPoint(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep the range fromIndex (inclusive) to
+	 * toIndex (exclusive) sorted.
+	 * 
+	 * @return index of the first element in the range that is not smaller than x, or toIndex.
+	 * 
+	 * Copy of insertionPoint(long[], int, int, long); keep the two in sync.
+	 */
+	public static int insertionPoint(double[] a, int fromIndex, int toIndex, double x) {
+
+		rangeCheck(a.length, fromIndex, toIndex);
+
+		int base = fromIndex;
+		int len = toIndex - fromIndex;
+		if (len == 0)
+			return fromIndex;
+
+		// The loop body has no data-dependent branch: the JIT turns the
+		// select into a conditional move, and the trip count depends only on len.
+		while (len > 1) {
+			int half = len >>> 1;
+			base = (a[base + half - 1] < x) ? base + half : base;
+			len -= half;
+		}
+		return (a[base] < x) ? base + 1 : base;
+
+	}
+
+	/**
+	 * Perform a binary search on a sorted char array using one comparison per level.
+	 * This is a driver that searches the whole array.
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(char[] a, char x) {
+
+		return binarySearch(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Perform a binary search on the range fromIndex (inclusive) to toIndex (exclusive).
+	 * 
+	 * @return index where item is found or NOT_FOUND if not found.
+	 */
+	public static int binarySearch(char[] a, int fromIndex, int toIndex, char x) {
+
+		int i = insertionPoint(a, fromIndex, toIndex, x);
+		return (i < toIndex && a[i] == x) ? i : NOT_FOUND;
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep a sorted.
+	 * 
+	 * @return index of the first element that is not smaller than x, or a.length.
+	 */
+	public static int insertionPoint(char[] a, char x) {
+
+		return insertionPoint(a, 0, a.length, x);
+
+	}
+
+	/**
+	 * Find where x would be inserted to keep the range fromIndex (inclusive) to
+	 * toIndex (exclusive) sorted.
+	 * 
+	 * @return index of the first element in the range that is not smaller than x, or toIndex.
+	 * 
+	 * Copy of insertionPoint(long[], int, int, long); keep the two in sync.
+	 */
+	public static int insertionPoint(char[] a, int fromIndex, int toIndex, char x) {
+
+		rangeCheck(a.length, fromIndex, toIndex);
+
+		int base = fromIndex;
+		int len = toIndex - fromIndex;
+		if (len == 0)
+			return fromIndex;
+
+		// The loop body has no data-dependent branch: the JIT turns the
+		// select into a conditional move, and the trip count depends only on len.
+		while (len > 1) {
+			int half = len >>> 1;
+			base = (a[base + half - 1] < x) ? base + half : base;
+			len -= half;
+		}
+		return (a[base] < x) ? base + 1 : base;
+
+	}
+
+	/**
+	 * Build a cache-friendly index for repeated searches in a large sorted array.
+	 * The index answers the same queries as binarySearch and insertionPoint.
+	 */
+	public static EytzingerIndex buildIndex(long[] sorted) {
+
+		return EytzingerIndex.build(sorted);
+
+	}
+
+	private static void rangeCheck(int length, int fromIndex, int toIndex) {
+
+		if (fromIndex > toIndex)
+			throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+		if (fromIndex < 0)
+			throw new ArrayIndexOutOfBoundsException(fromIndex);
+		if (toIndex > length)
+			throw new ArrayIndexOutOfBoundsException(toIndex);
+
+	}
+
 	public static void main(String[] args) {
 		Comparable[] a = { 1, 3, 4, 5, 6, 7 };
 		Comparable x = 6;
 		System.out.println(binarySearch(a, x, 1, 7)); // return the answer that 6 is at which index in array a.
 
+		long[] b = { 1, 3, 4, 5, 6, 7 };
+		System.out.println(binarySearch(b, 6L)); // 4
+		System.out.println(binarySearch(b, 2L)); // NOT_FOUND
+		System.out.println(insertionPoint(b, 2L)); // 1
 	}
 
 }
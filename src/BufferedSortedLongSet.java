@@ -0,0 +1,375 @@
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ *
+ * = sorted set with buffered updates =
+ *
+ *  - BinarySearch finds keys in a sorted array that never changes.
+ *  - Inserting into a sorted array moves half of it on average, and sorting it again after every change is worse.
+ *
+ *  - Here the set is a large sorted main array plus two small sorted delta arrays:
+ *
+ *    - inserts: keys added since the last merge; none of them is in main.
+ *    - deletes: keys of main removed since the last merge.
+ *
+ *    so that the set is (main \ deletes) + inserts, and a lookup is at most three binary searches.
+ *
+ *  - The three arrays are never modified. A writer copies the small delta it changes and publishes a new State
+ *    through a volatile field (copy on write), so a reader takes one snapshot and never waits for a lock.
+ *  - Writers are serialized by a private lock, and only copy the deltas, not main.
+ *    The set's own monitor is never used, so callers may synchronize on the set without deadlocking a merge.
+ *
+ *  - When the deltas reach the merge threshold, a merge into a new main array is queued on a background thread.
+ *    The merge takes a snapshot S and builds (S.main \ S.deletes) + S.inserts without holding the lock,
+ *    so readers and writers go on meanwhile. Then it swaps the new main in under the lock, against the current state C,
+ *    keeping the changes made since S in the new deltas:
+ *
+ *      inserts = (C.inserts \ S.inserts) + (S.deletes \ C.deletes)   added again after the snapshot
+ *      deletes = (C.deletes \ S.deletes) + (S.inserts \ C.inserts)   removed after the snapshot
+ *
+ *  - All sets share one daemon merge thread, started when the first merge is queued.
+ *    A queued merge only holds a weak reference to its set, so a set that is no longer used can be collected
+ *    even if it was never closed.
+ *  - close() stops the background merges of the set; the set can still be used, and merge() merges on the caller's thread.
+ *
+ */
+public final class BufferedSortedLongSet implements AutoCloseable {
+
+	private static final long[] EMPTY = new long[0];
+
+	private static final int DEFAULT_MERGE_THRESHOLD = 1024;
+
+	// The merge thread shared by all sets, created on first use.
+	private static final class Merger {
+
+		static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "BufferedSortedLongSet merger");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// A queued merge; it must not keep the set alive, so a weak reference is all it holds.
+	static final class MergeTask implements Runnable {
+
+		final WeakReference<BufferedSortedLongSet> set;
+
+		MergeTask(BufferedSortedLongSet set) {
+			this.set = new WeakReference<>(set);
+		}
+
+		@Override
+		public void run() {
+
+			BufferedSortedLongSet s = set.get();
+			if (s != null)
+				s.backgroundMerge();
+		}
+	}
+
+	// One immutable version of the set.
+	private static final class State {
+
+		final long[] main;
+		final long[] inserts;
+		final long[] deletes;
+
+		State(long[] main, long[] inserts, long[] deletes) {
+			this.main = main;
+			this.inserts = inserts;
+			this.deletes = deletes;
+		}
+
+		int pending() {
+			return inserts.length + deletes.length;
+		}
+	}
+
+	private volatile State state;
+
+	private final int mergeThreshold;
+	private final Object mergeLock = new Object(); // one merge at a time; taken before writeLock
+	private final Object writeLock = new Object(); // serializes the writers
+	private boolean mergeQueued; // guarded by writeLock
+	private boolean closed; // guarded by writeLock
+
+	// An empty set.
+	public BufferedSortedLongSet() {
+		this(EMPTY, DEFAULT_MERGE_THRESHOLD);
+	}
+
+	// A set of the given keys, in any order and possibly repeated, merging after mergeThreshold pending updates.
+	public BufferedSortedLongSet(long[] keys, int mergeThreshold) {
+
+		if (mergeThreshold < 1)
+			throw new IllegalArgumentException("Merge threshold " + mergeThreshold);
+
+		long[] main = keys.clone();
+		Arrays.sort(main);
+		int size = 0;
+		for (int i = 0; i < main.length; i++)
+			if (size == 0 || main[size - 1] != main[i])
+				main[size++] = main[i];
+
+		this.state = new State(Arrays.copyOf(main, size), EMPTY, EMPTY);
+		this.mergeThreshold = mergeThreshold;
+	}
+
+	// Lock-free.
+	public boolean contains(long x) {
+
+		State s = state;
+		if (BinarySearch.binarySearch(s.inserts, x) >= 0)
+			return true;
+		return BinarySearch.binarySearch(s.main, x) >= 0 && BinarySearch.binarySearch(s.deletes, x) < 0;
+	}
+
+	// Lock-free.
+	public int size() {
+
+		State s = state;
+		return s.main.length + s.inserts.length - s.deletes.length;
+	}
+
+	// Number of updates not merged into the main array yet.
+	public int pendingUpdates() {
+		return state.pending();
+	}
+
+	// The keys in ascending order, from one snapshot.
+	public long[] toArray() {
+		return merged(state);
+	}
+
+	// Add x; return false if it was already in the set.
+	public boolean add(long x) {
+
+		synchronized (writeLock) {
+			State s = state;
+			int d = BinarySearch.binarySearch(s.deletes, x);
+			if (d >= 0) {
+				// A key of main that was removed: undo the removal.
+				publish(new State(s.main, s.inserts, without(s.deletes, d)));
+				return true;
+			}
+			if (BinarySearch.binarySearch(s.main, x) >= 0)
+				return false;
+
+			int i = BinarySearch.insertionPoint(s.inserts, x);
+			if (i < s.inserts.length && s.inserts[i] == x)
+				return false;
+			publish(new State(s.main, with(s.inserts, i, x), s.deletes));
+			return true;
+		}
+	}
+
+	// Remove x; return false if it was not in the set.
+	public boolean remove(long x) {
+
+		synchronized (writeLock) {
+			State s = state;
+			int i = BinarySearch.binarySearch(s.inserts, x);
+			if (i >= 0) {
+				publish(new State(s.main, without(s.inserts, i), s.deletes));
+				return true;
+			}
+			if (BinarySearch.binarySearch(s.main, x) < 0)
+				return false;
+
+			int d = BinarySearch.insertionPoint(s.deletes, x);
+			if (d < s.deletes.length && s.deletes[d] == x)
+				return false;
+			publish(new State(s.main, s.inserts, with(s.deletes, d, x)));
+			return true;
+		}
+	}
+
+	// Merge the pending updates into the main array now, on this thread.
+	public void merge() {
+
+		synchronized (mergeLock) {
+			State snapshot = state;
+			if (snapshot.pending() == 0)
+				return;
+
+			// The expensive part, while readers and writers go on.
+			long[] main = merged(snapshot);
+
+			synchronized (writeLock) {
+				State current = state;
+				long[] inserts = union(difference(current.inserts, snapshot.inserts),
+						difference(snapshot.deletes, current.deletes));
+				long[] deletes = union(difference(current.deletes, snapshot.deletes),
+						difference(snapshot.inserts, current.inserts));
+				state = new State(main, inserts, deletes);
+			}
+		}
+	}
+
+	// Stop the background merges, waiting for one that is running.
+	@Override
+	public void close() {
+
+		synchronized (writeLock) {
+			closed = true;
+		}
+		synchronized (mergeLock) {
+			// A background merge that started before closed was set is done once we hold the lock.
+		}
+	}
+
+	// Called with writeLock held.
+	private void publish(State s) {
+
+		state = s;
+		if (s.pending() >= mergeThreshold && !mergeQueued && !closed) {
+			mergeQueued = true;
+			Merger.EXECUTOR.execute(new MergeTask(this));
+		}
+	}
+
+	// Run by a MergeTask on the merge thread.
+	private void backgroundMerge() {
+
+		// Check closed under mergeLock, so that close() waits for this merge or this merge sees closed.
+		synchronized (mergeLock) {
+			synchronized (writeLock) {
+				// Updates from now on may queue the next merge.
+				mergeQueued = false;
+				if (closed)
+					return;
+			}
+			merge();
+		}
+	}
+
+	// (s.main \ s.deletes) + s.inserts, sorted.
+	private static long[] merged(State s) {
+
+		long[] main = s.main, inserts = s.inserts, deletes = s.deletes;
+		long[] result = new long[main.length + inserts.length - deletes.length];
+		int i = 0, j = 0, d = 0, k = 0;
+		while (i < main.length) {
+			long m = main[i];
+			if (d < deletes.length && deletes[d] == m) {
+				i++;
+				d++; // deletes is a sorted subset of main
+				continue;
+			}
+			while (j < inserts.length && inserts[j] < m)
+				result[k++] = inserts[j++];
+			result[k++] = m;
+			i++;
+		}
+		while (j < inserts.length)
+			result[k++] = inserts[j++];
+		return result;
+	}
+
+	// a with x inserted at i.
+	private static long[] with(long[] a, int i, long x) {
+
+		long[] result = new long[a.length + 1];
+		System.arraycopy(a, 0, result, 0, i);
+		result[i] = x;
+		System.arraycopy(a, i, result, i + 1, a.length - i);
+		return result;
+	}
+
+	// a without a[i].
+	private static long[] without(long[] a, int i) {
+
+		if (a.length == 1)
+			return EMPTY;
+		long[] result = new long[a.length - 1];
+		System.arraycopy(a, 0, result, 0, i);
+		System.arraycopy(a, i + 1, result, i, a.length - i - 1);
+		return result;
+	}
+
+	// Keys of sorted a that are not in sorted b.
+	private static long[] difference(long[] a, long[] b) {
+
+		long[] result = new long[a.length];
+		int i = 0, j = 0, k = 0;
+		while (i < a.length) {
+			if (j == b.length || a[i] < b[j])
+				result[k++] = a[i++];
+			else if (a[i] > b[j])
+				j++;
+			else {
+				i++;
+				j++;
+			}
+		}
+		return k == 0 ? EMPTY : Arrays.copyOf(result, k);
+	}
+
+	// Keys of sorted a and sorted b, which have none in common.
+	private static long[] union(long[] a, long[] b) {
+
+		if (b.length == 0)
+			return a;
+		if (a.length == 0)
+			return b;
+		long[] result = new long[a.length + b.length];
+		int i = 0, j = 0, k = 0;
+		while (i < a.length && j < b.length)
+			result[k++] = a[i] < b[j] ? a[i++] : b[j++];
+		while (i < a.length)
+			result[k++] = a[i++];
+		while (j < b.length)
+			result[k++] = b[j++];
+		return result;
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+
+		int n = 1 << 20;
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++)
+			keys[i] = 2L * i; // even numbers
+
+		try (BufferedSortedLongSet set = new BufferedSortedLongSet(keys, 256)) {
+			System.out.println(set.add(7) + " " + set.add(8) + " " + set.remove(8) + " " + set.contains(7) + " "
+					+ set.contains(8) + " " + set.size()); // true false true true false 1048576
+
+			// One writer trickles updates while readers look keys up.
+			Thread writer = new Thread(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					long x = (i * 0x9E3779B97F4A7C15L >>> 44);
+					if ((i & 1) == 0)
+						set.add(x);
+					else
+						set.remove(x);
+				}
+			});
+			writer.start();
+
+			long found = 0;
+			long start = System.nanoTime();
+			int lookups = 0;
+			while (writer.isAlive()) {
+				for (int i = 0; i < 10_000; i++, lookups++)
+					if (set.contains(lookups * 31L % (2L * n)))
+						found++;
+			}
+			long elapsed = System.nanoTime() - start;
+			writer.join();
+
+			System.out.println(lookups + " lookups during 100000 updates, " + elapsed / Math.max(1, lookups)
+					+ " ns each (" + found + " found), " + set.pendingUpdates() + " updates pending, size " + set.size());
+
+			set.merge();
+			long[] all = set.toArray();
+			boolean sorted = true;
+			for (int i = 1; i < all.length; i++)
+				sorted &= all[i - 1] < all[i];
+			System.out.println(all.length + " keys after merge, sorted: " + sorted);
+		}
+	}
+
+}
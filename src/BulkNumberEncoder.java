@@ -0,0 +1,293 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.LongStream;
+
+/**
+ *
+ * = writing many numbers as text =
+ *
+ *  - PrintInt.printInt writes one number, one digit per println.
+ *  - To dump millions of numbers, the cost per number must be a handful of divisions and array stores,
+ *    and the cost of the system calls must be spread over megabytes.
+ *
+ *  - A BulkNumberEncoder formats each value with RadixFormatter into a byte array, followed by a separator,
+ *    and copies the array into a direct ByteBuffer that is written to the channel when it is full.
+ *    (A channel copies a heap buffer into a direct one before every write; this way the copy is done once, by us, in bulk.)
+ *  - The arrays and the buffer are allocated once and reused for every call.
+ *
+ *  - The parallel mode cuts the values into chunks and formats them on a ForkJoinPool,
+ *    each chunk into a direct buffer of its own.
+ *  - A worker formats into a small staging array of its own, reused by every chunk it takes, and copies it into the chunk's buffer
+ *    8 KB at a time. (Formatting straight into the direct buffer makes one small put per value, which is slower.)
+ *  - The chunks are written in order: we wait for the oldest chunk, write it, and reuse its buffer for the next chunk,
+ *    so only a fixed window of chunks is in memory at any time and the writing overlaps with the formatting.
+ *  - A chunk is as many values as fit in 1 MB when each takes the longest length in the encoder's base
+ *    (20 characters in base 10, 65 in base 2) plus the separator, so each chunk buffer is 1 MB at most.
+ *    The window is kept by the encoder and reused by every later call.
+ *
+ *  - An encoder is not thread-safe; use one per thread.
+ *
+ */
+public final class BulkNumberEncoder {
+
+	// Bytes per chunk buffer in the parallel mode.
+	private static final int CHUNK_BYTES = 1 << 20;
+
+	private static final int DEFAULT_BUFFER = 1 << 20;
+
+	// Per-worker staging of the parallel mode: small enough to stay in the L1 cache, reused by every chunk.
+	private static final int SCRATCH_SIZE = 8192;
+	private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+
+	// Longest separator: the staging of a worker must hold at least one value and its separator.
+	public static final int MAX_SEPARATOR = SCRATCH_SIZE - RadixFormatter.MAX_LENGTH;
+
+	private final int base;
+	private final byte[] separator;
+	private final int record; // longest value in base, plus the separator
+	private final int chunk; // values per chunk in the parallel mode
+	private final byte[] staging;
+	private final ByteBuffer buffer;
+
+	// Chunk buffers of the parallel mode, allocated on first use.
+	private ByteBuffer[] window;
+
+	// Encode in base with '\n' after each value.
+	public BulkNumberEncoder(int base) {
+		this(base, new byte[] { '\n' }, DEFAULT_BUFFER);
+	}
+
+	// Encode in base with separator after each value, writing in blocks of bufferSize bytes.
+	// The separator may be up to MAX_SEPARATOR bytes long.
+	public BulkNumberEncoder(int base, byte[] separator, int bufferSize) {
+
+		if (separator.length > MAX_SEPARATOR)
+			throw new IllegalArgumentException(
+					"Separator of " + separator.length + " bytes is longer than " + MAX_SEPARATOR);
+		int record = RadixFormatter.length(Long.MIN_VALUE, base) + separator.length; // also checks the base
+		if (bufferSize < record)
+			throw new IllegalArgumentException("Buffer of " + bufferSize + " bytes cannot hold one value");
+
+		this.base = base;
+		this.separator = separator.clone();
+		this.record = record;
+		this.chunk = Math.max(1, CHUNK_BYTES / record);
+		this.staging = new byte[bufferSize];
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	// Write every value followed by the separator, and return the number of bytes written.
+	public long write(long[] values, WritableByteChannel out) throws IOException {
+		return write(values, 0, values.length, out);
+	}
+
+	// Write values[from..to) followed by the separator, and return the number of bytes written.
+	public long write(long[] values, int from, int to, WritableByteChannel out) throws IOException {
+
+		if (from < 0 || from > to || to > values.length)
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + values.length);
+
+		int limit = staging.length - record;
+		long written = 0;
+		int end = 0;
+		for (int i = from; i < to; i++) {
+			end = append(values[i], staging, end);
+			if (end > limit) {
+				written += flush(staging, end, buffer, out);
+				end = 0;
+			}
+		}
+		return written + flush(staging, end, buffer, out);
+	}
+
+	// Write every value of the stream followed by the separator, and return the number of bytes written.
+	public long write(LongStream values, WritableByteChannel out) throws IOException {
+
+		int limit = staging.length - record;
+		long written = 0;
+		int end = 0;
+		PrimitiveIterator.OfLong it = values.iterator(); // nextLong does not box
+		while (it.hasNext()) {
+			end = append(it.nextLong(), staging, end);
+			if (end > limit) {
+				written += flush(staging, end, buffer, out);
+				end = 0;
+			}
+		}
+		return written + flush(staging, end, buffer, out);
+	}
+
+	// Like write(values, out), formatting chunks on the common ForkJoinPool.
+	public long writeParallel(long[] values, WritableByteChannel out) throws IOException {
+		return writeParallel(values, out, ForkJoinPool.commonPool());
+	}
+
+	// Like write(values, out), formatting chunks on pool and writing them in order.
+	public long writeParallel(long[] values, WritableByteChannel out, ForkJoinPool pool) throws IOException {
+
+		int chunks = (int) (((long) values.length + chunk - 1) / chunk);
+		if (chunks <= 1)
+			return write(values, out);
+
+		int size = Math.min(chunks, 2 * pool.getParallelism() + 1);
+		if (window == null || window.length < size) {
+			window = new ByteBuffer[size];
+			for (int i = 0; i < size; i++)
+				window[i] = ByteBuffer.allocateDirect(chunk * record);
+		}
+
+		ArrayDeque<ForkJoinTask<Void>> pending = new ArrayDeque<>();
+		long written = 0;
+		int next = 0;
+		try {
+			for (int done = 0; done < chunks; done++) {
+				for (; next < chunks && pending.size() < size; next++) {
+					int from = next * chunk;
+					int to = Math.min(values.length, from + chunk);
+					pending.add(pool.submit(new ChunkTask(this, values, from, to, window[next % size])));
+				}
+
+				pending.poll().join();
+				ByteBuffer chunk = window[done % size];
+				while (chunk.hasRemaining())
+					written += out.write(chunk);
+			}
+		} finally {
+			// Do not leave tasks writing into the buffers after an I/O error.
+			for (ForkJoinTask<Void> task : pending)
+				task.cancel(false);
+			for (ForkJoinTask<Void> task : pending)
+				task.quietlyJoin();
+		}
+		return written;
+	}
+
+	// Format value and the separator into dst at end; return the new end.
+	private int append(long value, byte[] dst, int end) {
+
+		end = RadixFormatter.format(value, base, dst, end);
+		for (byte b : separator)
+			dst[end++] = b;
+		return end;
+	}
+
+	// Copy staging[0..end) through buffer into out.
+	private static long flush(byte[] staging, int end, ByteBuffer buffer, WritableByteChannel out) throws IOException {
+
+		buffer.clear();
+		buffer.put(staging, 0, end);
+		buffer.flip();
+		long written = 0;
+		while (buffer.hasRemaining())
+			written += out.write(buffer);
+		return written;
+	}
+
+	private static final class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BulkNumberEncoder encoder;
+		private final long[] values;
+		private final int from;
+		private final int to;
+		private final ByteBuffer target;
+
+		ChunkTask(BulkNumberEncoder encoder, long[] values, int from, int to, ByteBuffer target) {
+			this.encoder = encoder;
+			this.values = values;
+			this.from = from;
+			this.to = to;
+			this.target = target;
+		}
+
+		@Override
+		protected void compute() {
+
+			byte[] scratch = SCRATCH.get();
+			int limit = scratch.length - encoder.record;
+			target.clear();
+			int end = 0;
+			for (int i = from; i < to; i++) {
+				end = encoder.append(values[i], scratch, end);
+				if (end > limit) {
+					target.put(scratch, 0, end);
+					end = 0;
+				}
+			}
+			target.put(scratch, 0, end);
+			target.flip();
+		}
+	}
+
+	// Compare println per value, the sequential encoder and the parallel encoder writing to a temporary file.
+	public static void main(String[] args) throws IOException {
+
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+		long[] values = new long[count];
+		for (int i = 0; i < count; i++)
+			values[i] = i * 0x9E3779B97F4A7C15L;
+
+		Path file = Files.createTempFile("numbers", ".txt");
+		try {
+			long start = System.nanoTime();
+			try (PrintStream out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+				for (long v : values)
+					out.println(v);
+			}
+			report("PrintStream.println", Files.size(file), System.nanoTime() - start);
+
+			BulkNumberEncoder encoder = new BulkNumberEncoder(10);
+			for (int parallel = 0; parallel < 2; parallel++) {
+				start = System.nanoTime();
+				long bytes;
+				try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+					bytes = parallel == 0 ? encoder.write(values, out) : encoder.writeParallel(values, out);
+				}
+				report(parallel == 0 ? "encoder" : "parallel encoder", bytes, System.nanoTime() - start);
+			}
+
+			start = System.nanoTime();
+			long bytes = new BulkNumberEncoder(16).write(LongStream.range(0, count),
+					Channels.newChannel(OutputStreamSink.INSTANCE));
+			report("hex from a LongStream, discarded", bytes, System.nanoTime() - start);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	private static void report(String what, long bytes, long nanos) {
+		System.out.println(what + ": " + bytes + " bytes in " + nanos / 1_000_000 + " ms, "
+				+ bytes * 1000 / Math.max(1, nanos) + " MB/s");
+	}
+
+	// An output stream that throws everything away, to time the encoding alone.
+	private static final class OutputStreamSink extends OutputStream {
+
+		static final OutputStreamSink INSTANCE = new OutputStreamSink();
+
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+
+}
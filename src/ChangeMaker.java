@@ -0,0 +1,144 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = reusing the change-making tables =
+ *
+ *  - DynamicProgrammingCoinChanging.makeChange fills coinsUsed and lastCoin for every amount from 0 to maxChange.
+ *  - Those tables depend only on the coins, so for a fixed currency they can be computed once and kept.
+ *
+ *  - A ChangeMaker holds the tables for one coin set:
+ *
+ *    - A query for an amount already in the tables is one lookup for the count,
+ *      plus one step per coin when we trace back through lastCoin.
+ *    - A larger amount extends the tables; since cell i depends only on smaller cells,
+ *      the old part stays valid and only the new cells are computed.
+ *    - The tables at least double each time they grow, so the total work stays proportional to the largest amount asked for.
+ *
+ *  - Many threads may query one ChangeMaker:
+ *
+ *    - The tables are never modified once they are published.
+ *      Growing them copies them into larger arrays, fills the new part and then publishes the new arrays through a volatile field.
+ *    - Readers only read that field, without locking; only threads that need to grow the tables take the lock.
+ *
+ */
+public final class ChangeMaker {
+
+	// Largest array we try to allocate.
+	private static final int MAX_TABLE = Integer.MAX_VALUE - 8;
+
+	private static final class Tables {
+
+		final int[] coinsUsed;
+		final int[] lastCoin;
+		final int maxChange;
+
+		Tables(int[] coinsUsed, int[] lastCoin, int maxChange) {
+			this.coinsUsed = coinsUsed;
+			this.lastCoin = lastCoin;
+			this.maxChange = maxChange;
+		}
+	}
+
+	private final int[] coins;
+	private volatile Tables tables;
+
+	// Create a change maker for the given coins. There must be a 1-cent coin.
+	public ChangeMaker(int... coins) {
+
+		this.coins = coins.clone();
+
+		boolean hasPenny = false;
+		for (int coin : this.coins) {
+			if (coin <= 0)
+				throw new IllegalArgumentException("Coin values must be positive: " + Arrays.toString(coins));
+			if (coin == 1)
+				hasPenny = true;
+		}
+		if (!hasPenny)
+			throw new IllegalArgumentException("There must be a 1-cent coin: " + Arrays.toString(coins));
+
+		tables = new Tables(new int[] { 0 }, new int[] { 1 }, 0);
+	}
+
+	public int[] coins() {
+		return coins.clone();
+	}
+
+	// Return the minimum number of coins needed to make amount.
+	public int minCoins(int amount) {
+
+		return tablesFor(amount).coinsUsed[amount];
+	}
+
+	// Return the coins of one optimal way to make amount, in the order found by tracing back through lastCoin.
+	public int[] coinsFor(int amount) {
+
+		Tables t = tablesFor(amount);
+		int[] result = new int[t.coinsUsed[amount]];
+		for (int i = amount, k = 0; i > 0; i -= t.lastCoin[i])
+			result[k++] = t.lastCoin[i];
+		return result;
+	}
+
+	// Largest amount the tables currently cover.
+	public int maxChange() {
+		return tables.maxChange;
+	}
+
+	private Tables tablesFor(int amount) {
+
+		if (amount < 0)
+			throw new IllegalArgumentException("Negative amount " + amount);
+
+		Tables t = tables;
+		if (amount <= t.maxChange)
+			return t;
+
+		synchronized (this) {
+			t = tables;
+			if (amount <= t.maxChange) // another thread grew them meanwhile
+				return t;
+
+			if (amount > MAX_TABLE - 1)
+				throw new IllegalArgumentException("Amount too large: " + amount);
+
+			int newMax = (int) Math.min(MAX_TABLE - 1, Math.max(amount, 2L * t.maxChange + 1));
+			int[] coinsUsed = Arrays.copyOf(t.coinsUsed, newMax + 1);
+			int[] lastCoin = Arrays.copyOf(t.lastCoin, newMax + 1);
+			DynamicProgrammingCoinChanging.makeChange(coins, coins.length, t.maxChange + 1, newMax, coinsUsed,
+					lastCoin);
+
+			t = new Tables(coinsUsed, lastCoin, newMax);
+			tables = t;
+			return t;
+		}
+	}
+
+	public static void main(String[] args) {
+
+		ChangeMaker maker = new ChangeMaker(1, 5, 10, 21, 25);
+		System.out.println(maker.minCoins(63)); // 3
+		System.out.println(Arrays.toString(maker.coinsFor(59))); // [1, 1, 1, 10, 21, 25] in some order
+		System.out.println(maker.maxChange());
+
+		int queries = 1_000_000;
+		int[] used = new int[1001];
+		int[] last = new int[1001];
+		long start = System.nanoTime();
+		long sum = 0;
+		for (int i = 0; i < 10_000; i++) {
+			DynamicProgrammingCoinChanging.makeChange(new int[] { 1, 5, 10, 21, 25 }, 5, 1000, used, last);
+			sum += used[i % 1000];
+		}
+		long fresh = (System.nanoTime() - start) / 10_000;
+
+		start = System.nanoTime();
+		for (int i = 0; i < queries; i++)
+			sum -= maker.minCoins(i % 1000);
+		long reused = (System.nanoTime() - start) / queries;
+
+		System.out.println("recompute tables: " + fresh + " ns per query, reuse tables: " + reused + " ns per query");
+	}
+
+}
@@ -0,0 +1,247 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ *
+ * = counting the ways to make change =
+ *
+ *  - DynamicProgrammingCoinChanging finds the minimum number of coins.
+ *  - A related question is how many different ways there are to make K cents, where only the number of each coin matters, not the order.
+ *    (10 cents with {1, 5, 10}: 10, 5+5, 5+1*5, 1*10; four ways.)
+ *
+ *  - ways[cents] is filled in a table indexed by amount, like coinsUsed:
+ *
+ *    - ways[0] = 1 (give nothing).
+ *    - We add the coins one denomination at a time. After coin j, ways[cents] counts the ways that use only the first j coins:
+ *
+ *        ways[cents] += ways[cents - coins[j]]
+ *
+ *      for cents going up, so ways[cents - coins[j]] already includes further coins j.
+ *  - The loop over coins is the outer loop here. With the amount outer, as in makeChange, each order of the coins
+ *    would be counted as a different way.
+ *
+ *  - The counts grow exponentially with the amount, so they are kept modulo p, or exactly as BigInteger.
+ *
+ *
+ * = limited supply =
+ *
+ *  - If there are only count[j] coins of value v = coins[j], then for cents = r + t*v (r < v)
+ *
+ *      best(cents) = min over 0 <= s <= count[j] of previous(cents - s*v) + s
+ *
+ *  - Written as previous(r + u*v) - u + t over u in t - count[j] .. t, this is the minimum of a sliding window
+ *    over the amounts with the same remainder r.
+ *  - A monotone queue keeps the candidates of the window in increasing order of value,
+ *    so each amount is pushed and popped at most once: O(coins * amount) in total, whatever the counts are.
+ *  - The number of ways with limited supply is a sliding window sum instead of a minimum,
+ *    again modulo p or exactly as BigInteger.
+ *
+ *  - Coins must be positive, counts must not be negative, and a modulus must be at least 2;
+ *    otherwise the routines throw IllegalArgumentException.
+ *
+ */
+public final class CoinChangeCounting {
+
+	// Value in coinsUsed for an amount that cannot be made with the coins available.
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private CoinChangeCounting() {
+	}
+
+	// Fill ways[0..maxChange] with the number of ways to make each amount, modulo p.
+	public static void countWaysMod(int[] coins, int differentCoins, int maxChange, long p, long[] ways) {
+
+		checkModulus(p);
+		checkCoins(coins, differentCoins);
+		checkAmount(maxChange);
+
+		Arrays.fill(ways, 0, maxChange + 1, 0);
+		ways[0] = 1;
+
+		for (int j = 0; j < differentCoins; j++) {
+			int coin = coins[j];
+			for (int cents = coin; cents <= maxChange; cents++)
+				ways[cents] = addMod(ways[cents], ways[cents - coin], p);
+		}
+	}
+
+	// Return the exact number of ways to make change.
+	public static BigInteger countWays(int[] coins, int differentCoins, int change) {
+
+		checkCoins(coins, differentCoins);
+		checkAmount(change);
+
+		BigInteger[] ways = new BigInteger[change + 1];
+		Arrays.fill(ways, BigInteger.ZERO);
+		ways[0] = BigInteger.ONE;
+
+		for (int j = 0; j < differentCoins; j++) {
+			int coin = coins[j];
+			for (int cents = coin; cents <= change; cents++)
+				ways[cents] = ways[cents].add(ways[cents - coin]);
+		}
+		return ways[change];
+	}
+
+	// Fill ways[0..maxChange] with the number of ways to make each amount, modulo p,
+	// when at most count[j] coins of value coins[j] are available.
+	public static void countWaysBoundedMod(int[] coins, int[] count, int differentCoins, int maxChange, long p,
+			long[] ways) {
+
+		checkModulus(p);
+		checkCoins(coins, differentCoins);
+		checkCounts(count, differentCoins);
+		checkAmount(maxChange);
+
+		Arrays.fill(ways, 0, maxChange + 1, 0);
+		ways[0] = 1;
+		long[] previous = new long[maxChange + 1];
+
+		for (int j = 0; j < differentCoins; j++) {
+			int coin = coins[j];
+			long window = (long) count[j] + 1; // s = 0 .. count[j]
+			System.arraycopy(ways, 0, previous, 0, maxChange + 1);
+
+			for (int r = 0; r < coin && r <= maxChange; r++) {
+				// ways(r + t*v) = previous(r + t*v) + ... + previous(r + (t - count)*v)
+				long sum = 0;
+				for (int t = 0, cents = r; cents <= maxChange; t++, cents += coin) {
+					sum = addMod(sum, previous[cents], p);
+					if (t >= window)
+						sum = addMod(sum, p - previous[(int) (cents - window * coin)], p);
+					ways[cents] = sum;
+				}
+			}
+		}
+	}
+
+	// Return the exact number of ways to make change
+	// when at most count[j] coins of value coins[j] are available.
+	public static BigInteger countWaysBounded(int[] coins, int[] count, int differentCoins, int change) {
+
+		checkCoins(coins, differentCoins);
+		checkCounts(count, differentCoins);
+		checkAmount(change);
+
+		BigInteger[] ways = new BigInteger[change + 1];
+		Arrays.fill(ways, BigInteger.ZERO);
+		ways[0] = BigInteger.ONE;
+		BigInteger[] previous = new BigInteger[change + 1];
+
+		for (int j = 0; j < differentCoins; j++) {
+			int coin = coins[j];
+			long window = (long) count[j] + 1;
+			System.arraycopy(ways, 0, previous, 0, change + 1);
+
+			for (int r = 0; r < coin && r <= change; r++) {
+				BigInteger sum = BigInteger.ZERO;
+				for (int t = 0, cents = r; cents <= change; t++, cents += coin) {
+					sum = sum.add(previous[cents]);
+					if (t >= window)
+						sum = sum.subtract(previous[(int) (cents - window * coin)]);
+					ways[cents] = sum;
+				}
+			}
+		}
+		return ways[change];
+	}
+
+	// Fill coinsUsed[0..maxChange] with the minimum number of coins for each amount
+	// when at most count[j] coins of value coins[j] are available.
+	// There is no lastCoin table: with limited coins, the rest of a solution is not the best solution for the rest of the amount.
+	public static void makeChangeBounded(int[] coins, int[] count, int differentCoins, int maxChange, int[] coinsUsed) {
+
+		checkCoins(coins, differentCoins);
+		checkCounts(count, differentCoins);
+		checkAmount(maxChange);
+
+		Arrays.fill(coinsUsed, 0, maxChange + 1, UNREACHABLE);
+		coinsUsed[0] = 0;
+
+		int[] previous = new int[maxChange + 1];
+		int[] queue = new int[maxChange + 1]; // t indexes of the window, increasing values
+		int[] queueValue = new int[maxChange + 1];
+
+		for (int j = 0; j < differentCoins; j++) {
+			int coin = coins[j];
+			long limit = count[j];
+			System.arraycopy(coinsUsed, 0, previous, 0, maxChange + 1);
+
+			for (int r = 0; r < coin && r <= maxChange; r++) {
+				int head = 0;
+				int tail = 0;
+
+				for (int t = 0, cents = r; cents <= maxChange; t++, cents += coin) {
+					// Candidate u = t with key previous(r + u*v) - u.
+					if (previous[cents] != UNREACHABLE) {
+						int key = previous[cents] - t;
+						while (tail > head && queueValue[tail - 1] >= key)
+							tail--;
+						queue[tail] = t;
+						queueValue[tail++] = key;
+					}
+					while (tail > head && t - queue[head] > limit)
+						head++;
+
+					coinsUsed[cents] = tail > head ? queueValue[head] + t : UNREACHABLE;
+				}
+			}
+		}
+	}
+
+	// Return (a + b) mod p, for 0 <= a, b < p.
+	private static long addMod(long a, long b, long p) {
+
+		long sum = a - p + b; // cannot overflow: a - p < 0 <= b
+		return sum < 0 ? sum + p : sum;
+	}
+
+	private static void checkCoins(int[] coins, int differentCoins) {
+
+		if (differentCoins < 0 || differentCoins > coins.length)
+			throw new IllegalArgumentException(differentCoins + " coins out of " + coins.length);
+		for (int j = 0; j < differentCoins; j++)
+			if (coins[j] <= 0)
+				throw new IllegalArgumentException("Coin values must be positive: " + Arrays.toString(coins));
+	}
+
+	private static void checkCounts(int[] count, int differentCoins) {
+
+		if (count.length < differentCoins)
+			throw new IllegalArgumentException(count.length + " counts for " + differentCoins + " coins");
+		for (int j = 0; j < differentCoins; j++)
+			if (count[j] < 0)
+				throw new IllegalArgumentException("Coin counts must not be negative: " + Arrays.toString(count));
+	}
+
+	private static void checkModulus(long p) {
+
+		if (p < 2)
+			throw new IllegalArgumentException("Modulus must be at least 2, not " + p);
+	}
+
+	private static void checkAmount(int change) {
+
+		if (change < 0)
+			throw new IllegalArgumentException("Negative amount " + change);
+	}
+
+	public static void main(String[] args) {
+
+		int[] coins = { 1, 5, 10, 21, 25 };
+		long[] ways = new long[101];
+		countWaysMod(coins, coins.length, 100, 1_000_000_007, ways);
+		System.out.println(ways[10] + " " + ways[100]);
+		System.out.println(countWays(coins, coins.length, 100_000));
+
+		// At most two 21-cent pieces and three 25-cent pieces.
+		int[] limits = { 100, 100, 100, 2, 3 };
+		int[] used = new int[201];
+		makeChangeBounded(coins, limits, coins.length, 200, used);
+		System.out.println(used[63] + " " + used[200]); // 21+21+10+10+1: 5, and 3*25 + 2*21 + 8*10 + 3*1: 16
+
+		countWaysBoundedMod(coins, limits, coins.length, 100, 1_000_000_007, ways);
+		System.out.println(ways[100] + " " + countWaysBounded(coins, limits, coins.length, 100));
+	}
+
+}
@@ -97,6 +97,10 @@
  *   - If we run the algorithm to make small change, it works perfectly.
  *   - But like the Fibonacci calculations, the algorithm requires too much redundant work, 
  *     and it will not terminate in a reasonable amount of time for the 63-cent case.    
+ *     
+ *   - makeChangeMemo keeps the same split into two piles but records each answer in an array,
+ *     so every amount from 1 to K is solved once and the total work is O(K^2).
+ *   - It uses an explicit stack instead of recursive calls, so a large K does not overflow the thread stack.
  *
  */
 public class CoinChanging {
@@ -105,6 +109,30 @@ public class CoinChanging {
 	// Simple recursive algorithm that is very inefficient
 	public static int makeChange(int [] coins, int change) {
 		
+		if (!RecursionMetrics.ENABLED)
+			return makeChangeRec(coins, change);
+		
+		// Driver routine: measure the whole recursion as one invocation.
+		RecursionProbe probe = RecursionMetrics.begin("CoinChanging.makeChange", change);
+		try {
+			return makeChange(coins, change, null, probe, 1);
+		} finally {
+			probe.end();
+		}
+	}
+	
+	// The same recursive algorithm, adding the number of calls it makes to calls[0].
+	public static int makeChange(int [] coins, int change, long[] calls) {
+		
+		RecursionProbe probe = RecursionProbe.detached();
+		int minCoins = makeChange(coins, change, null, probe, 1);
+		calls[0] += probe.calls();
+		return minCoins;
+	}
+	
+	// Hidden recursive routine.
+	private static int makeChangeRec(int [] coins, int change) {
+		
 		int minCoins = change;
 		
 		for(int i = 0; i < coins.length;i++)
@@ -115,14 +143,128 @@ public class CoinChanging {
 		for(int j = 1; j <= change/2; j++) { 
 			// split the change to two pile
 			// and handle each pile of the change then sum the total coins
-			int thisCoins = makeChange(coins, j) + makeChange(coins, change - j);
+			int thisCoins = makeChangeRec(coins, j) + makeChangeRec(coins, change - j);
+			
+			// Find the minimum number of the coins
+			if(thisCoins < minCoins)
+				minCoins = thisCoins;
+		}
+		return minCoins;
+	}
+	
+	// The same recursion, instrumented and memoized; used by the drivers that count calls and by Memoized.makeChange.
+	// If cache is not null, the answer for change is looked up in it before it is computed, and stored in it after;
+	// the cache must only hold answers for these coins.
+	// If probe is not null, every call reports itself and its depth to it.
+	static int makeChange(int [] coins, int change, LongCache cache, RecursionProbe probe, int depth) {
+		
+		if (probe != null)
+			probe.enter(depth);
+		if(cache != null) {
+			long cached = cache.getOrDefault(change, -1); // counts are >= 0
+			if(cached >= 0)
+				return (int) cached;
+		}
+		
+		int minCoins = change;
+		
+		for(int i = 0; i < coins.length;i++)
+			if(coins[i] == change)
+				minCoins = 1;
+		
+		//No match; solve recursively.
+		for(int j = 1; minCoins > 1 && j <= change/2; j++) { 
+			// split the change to two pile
+			// and handle each pile of the change then sum the total coins
+			int thisCoins = makeChange(coins, j, cache, probe, depth + 1)
+					+ makeChange(coins, change - j, cache, probe, depth + 1);
 			
 			// Find the minimum number of the coins
 			if(thisCoins < minCoins)
 				minCoins = thisCoins;
 		}
+		if(cache != null)
+			cache.put(change, minCoins);
 		return minCoins;
 	}
+	
+	// Return minimum number of coins to make change.
+	// Same split into two piles, but each amount is solved only once.
+	public static int makeChangeMemo(int [] coins, int change) {
+		
+		return makeChangeMemo(coins, change, new long[1]);
+	}
+	
+	// Memoized version of makeChange, counting the evaluated subproblems in evaluations[0].
+	//
+	// memo[c] holds the answer for c cents once it is known (0 means not yet known).
+	// Instead of recursive calls we keep an explicit stack of pending amounts,
+	// so a large change cannot overflow the thread stack.
+	// Each frame remembers the split j it has reached and the best total so far;
+	// when it needs an unknown amount it pushes it and resumes at the same j afterwards.
+	public static int makeChangeMemo(int [] coins, int change, long[] evaluations) {
+		
+		if(change <= 0)
+			return makeChange(coins, change);
+		
+		boolean[] isCoin = new boolean[change + 1];
+		for(int coin : coins)
+			if(coin > 0 && coin <= change)
+				isCoin[coin] = true;
+		
+		int[] memo = new int[change + 1];
+		
+		// The stack holds distinct amounts, each smaller than the one below it.
+		int[] amount = new int[change + 1];
+		int[] split = new int[change + 1]; // 0 until the frame is first visited
+		int[] best = new int[change + 1];
+		int top = 0;
+		amount[0] = change;
+		
+		while(top >= 0) {
+			int c = amount[top];
+			
+			if(split[top] == 0) {
+				evaluations[0]++;
+				if(isCoin[c]) {
+					memo[c] = 1;
+					top--;
+					continue;
+				}
+				split[top] = 1;
+				best[top] = c;
+			}
+			
+			int j = split[top];
+			int minCoins = best[top];
+			int pending = 0;
+			for(; j <= c/2; j++) {
+				if(memo[j] == 0) {
+					pending = j;
+					break;
+				}
+				if(memo[c - j] == 0) {
+					pending = c - j;
+					break;
+				}
+				if(memo[j] + memo[c - j] < minCoins)
+					minCoins = memo[j] + memo[c - j];
+			}
+			
+			if(pending != 0) {
+				// Solve the pending amount first, then come back to split j.
+				split[top] = j;
+				best[top] = minCoins;
+				top++;
+				amount[top] = pending;
+				split[top] = 0;
+			} else {
+				memo[c] = minCoins;
+				top--;
+			}
+		}
+		return memo[change];
+	}
 
 	public static void main(String[] args) {
 		
@@ -130,6 +272,16 @@ public class CoinChanging {
 		int[] a = {1, 5, 10, 25};
 		
 		System.out.println(makeChange(a, 13)); // change 13$
+		
+		// Count the work done by each version.
+		long[] calls = new long[1];
+		long[] evaluations = new long[1];
+		System.out.println(makeChange(a, 24, calls) + " coins, " + calls[0] + " recursive calls");
+		System.out.println(makeChangeMemo(a, 24, evaluations) + " coins, " + evaluations[0] + " subproblems");
+		
+		int[] b = {1, 5, 10, 21, 25};
+		System.out.println(makeChangeMemo(b, 63)); // 3
+		System.out.println(makeChangeMemo(b, 20000)); // no StackOverflowError
 
 	}
 
@@ -0,0 +1,213 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = canonical coin systems =
+ *
+ *  - For U.S. coins {1, 5, 10, 25} the greedy algorithm (repeatedly take the largest coin that fits) always gives the minimum,
+ *    and it takes only one division per denomination.
+ *  - Such coin systems are called canonical.
+ *  - With a 21-cent piece added it fails: greedy makes 63 cents with six coins instead of three.
+ *
+ *  - Whether a coin system is canonical can be tested once, when it is registered.
+ *  - Pearson's test (1994) runs in O(n^3) for n denominations, c1 > c2 > ... > cn = 1:
+ *
+ *    - If the system is not canonical, the smallest amount w where greedy fails has an optimal solution
+ *      that agrees with the greedy solution for c(i-1) - 1 on the coins larger than cj,
+ *      uses one more cj, and no coins smaller than cj, for some 1 < i <= j <= n.
+ *    - So we build each of these O(n^2) candidates, and compare its number of coins with the greedy count for its value.
+ *
+ *  - A canonical system answers every query greedily, with no table at all.
+ *
+ *
+ * = large amounts in any coin system =
+ *
+ *  - Let L be the largest coin and c the second largest.
+ *  - An optimal solution never holds L or more coins smaller than L:
+ *    among any L of them some nonempty group adds up to a multiple of L, say q * L,
+ *    and q largest coins would replace that group with fewer coins.
+ *  - So the coins other than L in an optimal solution are worth less than (L - 1) * c + 1 = T,
+ *    and an amount of at least T always uses one coin L:
+ *
+ *      minCoins(x) = 1 + minCoins(x - L)     for x >= T
+ *
+ *  - For a non-canonical system we take coins L greedily until the amount is below T,
+ *    and solve the rest with the dynamic programming tables of a ChangeMaker, which never grow beyond T.
+ *  - T grows like the product of the two largest coins: {1, 40000, 50000} gives T close to 2 * 10^9.
+ *    Above MAX_TABLE_THRESHOLD we keep no tables, and solve the rest with CompactCoinChanging instead,
+ *    in a ring buffer of L cells; each query then costs O(T * n) time instead of a lookup.
+ *
+ */
+public final class CoinSystem {
+
+	// Largest threshold T for which we keep ChangeMaker tables (two ints per cent, 32 MB at most).
+	private static final int MAX_TABLE_THRESHOLD = 1 << 22;
+
+	private final int[] coins; // ascending
+	private final int counterexample; // smallest amount where greedy fails, or -1
+	private final long threshold; // amounts from here on take the largest coin
+	private final ChangeMaker table; // null for canonical systems and when the threshold is too large
+
+	private CoinSystem(int[] coins) {
+
+		this.coins = coins;
+		this.counterexample = findCounterexample(coins);
+
+		if (counterexample < 0) {
+			threshold = 0;
+			table = null;
+		} else {
+			int n = coins.length;
+			threshold = (long) (coins[n - 1] - 1) * coins[n - 2] + 1;
+			table = threshold <= MAX_TABLE_THRESHOLD ? new ChangeMaker(coins) : null;
+		}
+	}
+
+	// Register a coin system. There must be a 1-cent coin.
+	public static CoinSystem of(int... coins) {
+
+		int[] sorted = coins.clone();
+		Arrays.sort(sorted);
+
+		int n = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (n == 0 || sorted[i] != sorted[n - 1]) // drop duplicates
+				sorted[n++] = sorted[i];
+		sorted = Arrays.copyOf(sorted, n);
+
+		if (n == 0 || sorted[0] != 1)
+			throw new IllegalArgumentException("There must be a 1-cent coin: " + Arrays.toString(coins));
+		return new CoinSystem(sorted);
+	}
+
+	public boolean isCanonical() {
+		return counterexample < 0;
+	}
+
+	// Smallest amount for which greedy is not optimal, or -1 if the system is canonical.
+	public int smallestCounterexample() {
+		return counterexample;
+	}
+
+	// Return the minimum number of coins needed to make amount.
+	public int minCoins(int amount) {
+
+		checkAmount(amount);
+		if (isCanonical())
+			return greedyCount(coins, amount);
+
+		int taken = largestTaken(amount);
+		amount -= taken * coins[coins.length - 1];
+		if (table == null)
+			return taken + CompactCoinChanging.minCoins(coins, coins.length, amount);
+		return taken + table.minCoins(amount);
+	}
+
+	// Return the coins of one optimal way to make amount, largest first.
+	public int[] coinsFor(int amount) {
+
+		checkAmount(amount);
+		int largest = coins[coins.length - 1];
+
+		if (isCanonical()) {
+			int[] result = new int[greedyCount(coins, amount)];
+			int k = 0;
+			for (int i = coins.length - 1; i >= 0; i--) {
+				for (int q = amount / coins[i]; q > 0; q--)
+					result[k++] = coins[i];
+				amount %= coins[i];
+			}
+			return result;
+		}
+
+		int taken = largestTaken(amount);
+		amount -= taken * largest;
+		int[] rest = table == null ? CompactCoinChanging.coinsFor(coins, coins.length, amount) : table.coinsFor(amount);
+		Arrays.sort(rest);
+
+		int[] result = new int[taken + rest.length];
+		Arrays.fill(result, 0, taken, largest);
+		for (int i = 0; i < rest.length; i++)
+			result[taken + i] = rest[rest.length - 1 - i];
+		return result;
+	}
+
+	// Number of largest coins to take before the amount is below the threshold.
+	private int largestTaken(int amount) {
+
+		if (amount < threshold)
+			return 0;
+		return (int) ((amount - threshold) / coins[coins.length - 1] + 1);
+	}
+
+	// Number of coins greedy uses for amount; coins ascending.
+	private static int greedyCount(int[] coins, int amount) {
+
+		int count = 0;
+		for (int i = coins.length - 1; i >= 0 && amount > 0; i--) {
+			count += amount / coins[i];
+			amount %= coins[i];
+		}
+		return count;
+	}
+
+	// Pearson's test; coins ascending with coins[0] == 1.
+	// Returns the smallest amount where greedy is not optimal, or -1.
+	private static int findCounterexample(int[] ascending) {
+
+		int n = ascending.length;
+		long[] c = new long[n + 1]; // c[1] > c[2] > ... > c[n] = 1, as in the paper
+		for (int k = 1; k <= n; k++)
+			c[k] = ascending[n - k];
+
+		long smallest = -1;
+		long[] greedy = new long[n + 1];
+
+		for (int i = 2; i <= n; i++) {
+			// Greedy representation of c[i-1] - 1.
+			long rest = c[i - 1] - 1;
+			for (int k = 1; k <= n; k++) {
+				greedy[k] = rest / c[k];
+				rest %= c[k];
+			}
+
+			for (int j = i; j <= n; j++) {
+				// Keep the greedy coins larger than c[j], add one c[j], drop the rest.
+				long count = 1;
+				long w = c[j];
+				for (int k = 1; k <= j; k++) {
+					count += greedy[k];
+					w += greedy[k] * c[k];
+				}
+
+				if (w <= Integer.MAX_VALUE && count < greedyCount(ascending, (int) w)
+						&& (smallest < 0 || w < smallest))
+					smallest = w;
+			}
+		}
+		return (int) smallest;
+	}
+
+	private static void checkAmount(int amount) {
+
+		if (amount < 0)
+			throw new IllegalArgumentException("Negative amount " + amount);
+	}
+
+	public static void main(String[] args) {
+
+		CoinSystem us = of(1, 5, 10, 25);
+		System.out.println(us.isCanonical() + " " + us.minCoins(63) + " " + Arrays.toString(us.coinsFor(63)));
+
+		CoinSystem withTwentyOne = of(1, 5, 10, 21, 25);
+		System.out.println(withTwentyOne.isCanonical() + ", greedy first fails at "
+				+ withTwentyOne.smallestCounterexample()); // false, 31 = 21 + 10
+		System.out.println(withTwentyOne.minCoins(63) + " " + Arrays.toString(withTwentyOne.coinsFor(63))); // 3
+		System.out.println(withTwentyOne.minCoins(1_000_000_000)); // no table of a billion cells
+
+		// The threshold is about 2 * 10^9 here, far too large for tables.
+		CoinSystem large = of(1, 40_000, 50_000);
+		System.out.println(large.minCoins(160_000) + " " + Arrays.toString(large.coinsFor(160_000))); // 4, four 40000s
+	}
+
+}
@@ -0,0 +1,244 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = change making in less memory =
+ *
+ *  - DynamicProgrammingCoinChanging.makeChange keeps two int arrays of maxChange + 1 entries, 8 bytes per cent.
+ *  - Often much less is needed.
+ *
+ *  1. Only the count
+ *
+ *  - The answer for cents only reads the answers for cents - coins[j], and no coin is larger than the largest coin m.
+ *  - So only the last m answers are ever needed: we keep them in a ring buffer of m entries,
+ *    where the answer for cents lives at index cents % m.
+ *
+ *  2. Narrow cells
+ *
+ *  - lastCoin only ever holds one of the coins, so it can store the index of the coin in a byte instead of its value.
+ *    The index -1 stands for the 1-cent coin that the algorithm assumes when nothing better is found.
+ *  - When the caller knows the counts are small, coinsUsed can be a short[] or a char[] instead of an int[].
+ *    A count that does not fit throws ArithmeticException instead of being stored wrapped.
+ *
+ *  3. Checkpoints
+ *
+ *  - To list the coins for one large amount we need lastCoin along the path back to 0, not the whole table.
+ *  - During the forward pass we only keep the ring buffer, and every S cents we save a copy of it (a checkpoint).
+ *  - To trace back, we recompute one segment of S cells from its checkpoint, follow lastCoin through it,
+ *    and move on to the previous segment, as in Hirschberg's space-saving technique.
+ *  - With S about sqrt(maxChange * m) the memory is O(sqrt(maxChange * m)) instead of O(maxChange),
+ *    for about twice the work.
+ *
+ *  - All versions give the same answers as DynamicProgrammingCoinChanging.makeChange.
+ *
+ */
+public final class CompactCoinChanging {
+
+	// Index stored in lastCoin when the 1-cent default is used.
+	public static final byte PENNY = -1;
+
+	private CompactCoinChanging() {
+	}
+
+	// Return the minimum number of coins for change, using a ring buffer of max(coins) entries.
+	public static int minCoins(int[] coins, int differentCoins, int change) {
+
+		int ring = largestCoin(coins, differentCoins);
+		int[] used = new int[ring];
+
+		for (int cents = 1; cents <= change; cents++) {
+			int minCoins = cents;
+			for (int j = 0; j < differentCoins; j++) {
+				if (coins[j] > cents)
+					continue;
+				int count = used[(cents - coins[j]) % ring] + 1;
+				if (count < minCoins)
+					minCoins = count;
+			}
+			// Reading cents - m and writing cents use the same slot; all reads are done by now.
+			used[cents % ring] = minCoins;
+		}
+		return change == 0 ? 0 : used[change % ring];
+	}
+
+	// makeChange with short counts and byte coin indexes.
+	// Throws ArithmeticException if a count does not fit in a short.
+	public static void makeChange(int[] coins, int differentCoins, int maxChange, short[] coinsUsed,
+			byte[] lastCoinIndex) {
+
+		checkIndexes(differentCoins);
+		coinsUsed[0] = 0;
+		lastCoinIndex[0] = PENNY;
+
+		for (int cents = 1; cents <= maxChange; cents++) {
+			int minCoins = cents;
+			int newCoin = PENNY;
+			for (int j = 0; j < differentCoins; j++) {
+				if (coins[j] > cents)
+					continue;
+				if (coinsUsed[cents - coins[j]] + 1 < minCoins) {
+					minCoins = coinsUsed[cents - coins[j]] + 1;
+					newCoin = j;
+				}
+			}
+			if (minCoins > Short.MAX_VALUE)
+				throw new ArithmeticException(minCoins + " coins for " + cents + " cents do not fit in a short");
+			coinsUsed[cents] = (short) minCoins;
+			lastCoinIndex[cents] = (byte) newCoin;
+		}
+	}
+
+	// makeChange with char counts (up to 65535) and byte coin indexes.
+	// Throws ArithmeticException if a count does not fit in a char.
+	public static void makeChange(int[] coins, int differentCoins, int maxChange, char[] coinsUsed,
+			byte[] lastCoinIndex) {
+
+		checkIndexes(differentCoins);
+		coinsUsed[0] = 0;
+		lastCoinIndex[0] = PENNY;
+
+		for (int cents = 1; cents <= maxChange; cents++) {
+			int minCoins = cents;
+			int newCoin = PENNY;
+			for (int j = 0; j < differentCoins; j++) {
+				if (coins[j] > cents)
+					continue;
+				if (coinsUsed[cents - coins[j]] + 1 < minCoins) {
+					minCoins = coinsUsed[cents - coins[j]] + 1;
+					newCoin = j;
+				}
+			}
+			if (minCoins > Character.MAX_VALUE)
+				throw new ArithmeticException(minCoins + " coins for " + cents + " cents do not fit in a char");
+			coinsUsed[cents] = (char) minCoins;
+			lastCoinIndex[cents] = (byte) newCoin;
+		}
+	}
+
+	// The coin value for a lastCoin index.
+	public static int coinValue(int[] coins, byte index) {
+		return index == PENNY ? 1 : coins[index];
+	}
+
+	// Return the coins for change in the order found by tracing back through lastCoin,
+	// keeping only checkpoints of the table instead of the whole table.
+	public static int[] coinsFor(int[] coins, int differentCoins, int change) {
+
+		if (change <= 0)
+			return new int[0];
+
+		int m = largestCoin(coins, differentCoins);
+		int segment = (int) Math.max(m, Math.min(change, Math.sqrt((double) change * m)));
+		int segments = change / segment + 1;
+
+		// Forward pass: checkpoints[k] holds the answers for the m cents before k * segment.
+		int[][] checkpoints = new int[segments][];
+		int[] ring = new int[m];
+		for (int cents = 0; cents <= change; cents++) {
+			if (cents % segment == 0)
+				checkpoints[cents / segment] = snapshot(ring, cents, m);
+			if (cents == 0)
+				continue;
+
+			int minCoins = cents;
+			for (int j = 0; j < differentCoins; j++) {
+				if (coins[j] > cents)
+					continue;
+				int count = ring[(cents - coins[j]) % m] + 1;
+				if (count < minCoins)
+					minCoins = count;
+			}
+			ring[cents % m] = minCoins;
+		}
+
+		// Backward pass, one segment at a time.
+		int[] result = new int[ring[change % m]];
+		int k = 0;
+		int[] window = new int[m + segment]; // window[m + i] is the answer for start + i
+		int[] last = new int[segment]; // last[i] is lastCoin for start + i
+		int amount = change;
+
+		while (amount > 0) {
+			int start = amount / segment * segment;
+			System.arraycopy(checkpoints[start / segment], 0, window, 0, m);
+			window[m] = 0; // 0 cents need 0 coins; only read in the first segment
+
+			for (int cents = Math.max(start, 1); cents <= amount; cents++) {
+				int minCoins = cents;
+				int newCoin = 1;
+				for (int j = 0; j < differentCoins; j++) {
+					if (coins[j] > cents)
+						continue;
+					int count = window[m + cents - coins[j] - start] + 1;
+					if (count < minCoins) {
+						minCoins = count;
+						newCoin = coins[j];
+					}
+				}
+				window[m + cents - start] = minCoins;
+				last[cents - start] = newCoin;
+			}
+
+			while (amount >= start && amount > 0) {
+				int coin = last[amount - start];
+				result[k++] = coin;
+				amount -= coin;
+			}
+		}
+		return result;
+	}
+
+	// Copy the answers for the m cents before cents out of the ring.
+	private static int[] snapshot(int[] ring, int cents, int m) {
+
+		int[] copy = new int[m];
+		for (int i = 0; i < m; i++) {
+			int c = cents - m + i;
+			if (c >= 0)
+				copy[i] = ring[c % m];
+		}
+		return copy;
+	}
+
+	private static int largestCoin(int[] coins, int differentCoins) {
+
+		int m = 1;
+		for (int j = 0; j < differentCoins; j++) {
+			if (coins[j] <= 0)
+				throw new IllegalArgumentException("Coin values must be positive: " + Arrays.toString(coins));
+			m = Math.max(m, coins[j]);
+		}
+		return m;
+	}
+
+	private static void checkIndexes(int differentCoins) {
+
+		if (differentCoins > Byte.MAX_VALUE)
+			throw new IllegalArgumentException("At most " + Byte.MAX_VALUE + " coins fit in a byte index");
+	}
+
+	public static void main(String[] args) {
+
+		int[] coins = { 1, 5, 10, 21, 25 };
+
+		System.out.println(minCoins(coins, coins.length, 63)); // 3
+		System.out.println(Arrays.toString(coinsFor(coins, coins.length, 59))); // [1, 1, 1, 10, 21, 25] in some order
+
+		short[] used = new short[64];
+		byte[] last = new byte[64];
+		makeChange(coins, coins.length, 63, used, last);
+		System.out.println(used[63] + " coins, last coin " + coinValue(coins, last[63]));
+
+		// The ring buffer and the checkpoints against the full tables.
+		int change = 100_000;
+		int[] coinsUsed = new int[change + 1];
+		int[] lastCoin = new int[change + 1];
+		DynamicProgrammingCoinChanging.makeChange(coins, coins.length, change, coinsUsed, lastCoin);
+		int[] path = coinsFor(coins, coins.length, change);
+		System.out.println((minCoins(coins, coins.length, change) == coinsUsed[change]) + " "
+				+ (path.length == coinsUsed[change] && Arrays.stream(path).sum() == change)); // true true
+
+		// DynamicProgrammingCoinChangingBenchmark in the benchmarks module compares their speed with the full tables.
+	}
+
+}
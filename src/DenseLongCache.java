@@ -0,0 +1,90 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+/**
+ *
+ * = array-backed cache for small keys =
+ *
+ *  - When the keys are 0..size-1, the cache is simply an array indexed by the key, as in
+ *    DynamicProgrammingCoinChanging, and nothing is ever evicted.
+ *  - A separate presence flag tells a cached 0 apart from a missing entry.
+ *
+ *  - The arrays are atomic, so no locks are needed:
+ *    a writer stores the value first and then sets the flag, and a reader that sees the flag set also sees the value.
+ *  - Keys outside 0..size-1 are computed every time and counted as misses.
+ *
+ */
+public final class DenseLongCache implements LongCache {
+
+	private final AtomicLongArray values;
+	private final AtomicIntegerArray present;
+	private final MemoStats stats = new MemoStats();
+
+	// A cache for the keys 0..size-1.
+	public DenseLongCache(int size) {
+
+		if (size < 0)
+			throw new IllegalArgumentException("Negative size " + size);
+		values = new AtomicLongArray(size);
+		present = new AtomicIntegerArray(size);
+	}
+
+	@Override
+	public long get(long key, LongUnaryOperator function) {
+
+		if (key < 0 || key >= values.length()) {
+			stats.miss();
+			return function.applyAsLong(key);
+		}
+
+		int i = (int) key;
+		if (present.get(i) != 0) {
+			stats.hit();
+			return values.get(i);
+		}
+
+		stats.miss();
+		long value = function.applyAsLong(key);
+		values.set(i, value);
+		present.set(i, 1); // publishes the value
+		return value;
+	}
+
+	@Override
+	public long getOrDefault(long key, long absent) {
+
+		if (key >= 0 && key < values.length() && present.get((int) key) != 0) {
+			stats.hit();
+			return values.get((int) key);
+		}
+		stats.miss();
+		return absent;
+	}
+
+	@Override
+	public void put(long key, long value) {
+
+		if (key < 0 || key >= values.length())
+			return;
+		values.set((int) key, value);
+		present.set((int) key, 1); // publishes the value
+	}
+
+	@Override
+	public void clear() {
+
+		for (int i = 0; i < present.length(); i++)
+			present.set(i, 0);
+	}
+
+	@Override
+	public MemoStats stats() {
+		return stats;
+	}
+
+	public int size() {
+		return values.length();
+	}
+
+}
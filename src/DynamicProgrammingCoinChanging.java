@@ -82,12 +82,20 @@ public class DynamicProgrammingCoinChanging {
 		coinsUsed[0] = 0;
 		lastCoin[0] = 1;
 
+		makeChange(coins, differentCoins, 1, maxChange, coinsUsed, lastCoin);
+	}
+
+	// Extend tables that are already filled for 0 -> fromChange - 1
+	// so that they are filled up to maxChange.
+	public static void makeChange(int[] coins, int differentCoins, int fromChange, int maxChange, int[] coinsUsed,
+			int[] lastCoin) {
+
 		// macChange = 20
 		// int[] coins ={1, 5, 10}
 		// differentCoins = 3
 
 		// cents = 1 ~ 20
-		for (int cents = 1; cents <= maxChange; cents++) {
+		for (int cents = fromChange; cents <= maxChange; cents++) {
 
 			int minCoins = cents;
 			int newCoin = 1;
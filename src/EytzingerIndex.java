@@ -0,0 +1,157 @@
+/**
+ *
+ * = Eytzinger layout =
+ *
+ *  - A binary search on a sorted array probes the middle element, then the middle of one half, and so on.
+ *  - Once the array is larger than the cache, nearly every one of those probes is a cache miss,
+ *    because the elements visited on the way down are far apart in memory.
+ *
+ *  - The Eytzinger (or BFS) layout stores the same keys in the order of a breadth-first walk of the
+ *    implicit binary search tree, the same way a binary heap is stored:
+ *
+ *    - The root is at index 1.
+ *    - The children of the node at index k are at index 2k and 2k+1.
+ *
+ *      sorted:    1 3 4 5 6 7
+ *
+ *                  5
+ *                /   \
+ *               3     7
+ *              / \   /
+ *             1   4 6
+ *
+ *      eytzinger: - 5 3 7 1 4 6
+ *
+ *  - The first levels of the tree are now packed together at the front of the array and stay in cache.
+ *  - The 16 nodes four levels below node k are stored next to each other (16k to 16k+15),
+ *    so the last levels of a search touch few cache lines.
+ *
+ *  - The search goes down with k = 2k + (b[k] < x), one comparison per level and no branch.
+ *  - When k runs past the end of the array, the path taken is encoded in the bits of k:
+ *    the last time we went left is the lowest zero bit, and shifting it away gives the node holding the lower bound.
+ *
+ *  - Java has no software prefetch instruction, so we rely on the layout alone.
+ *
+ *  - Results are reported as indexes in the original sorted array.
+ *  - The sorted position of node k follows from its place in the tree: in a full tree of h levels,
+ *    node k at depth d is preceded by (2(k - 2^d) + 1) * 2^(h-1-d) - 1 nodes,
+ *    minus the leaves that are missing from the last level, so no extra table (and no extra cache miss) is needed.
+ *
+ */
+public final class EytzingerIndex {
+
+	private static final int NOT_FOUND = -1;
+
+	private final long[] keys; // keys[k] is node k, keys[0] is unused
+	private final int size;
+	private final int levels; // number of levels of the tree
+	private final int lastLevel; // number of nodes in the last level
+
+	private EytzingerIndex(long[] keys, int size) {
+		this.keys = keys;
+		this.size = size;
+		this.levels = 32 - Integer.numberOfLeadingZeros(size);
+		this.lastLevel = size - ((1 << (levels - 1)) - 1);
+	}
+
+	// Build an index from an array sorted in ascending order.
+	public static EytzingerIndex build(long[] sorted) {
+
+		int n = sorted.length;
+		if (n >= 1 << 30) // 2k + 1 must not overflow
+			throw new IllegalArgumentException("Too many keys: " + n);
+
+		long[] keys = new long[n + 1];
+
+		build(sorted, keys, 0, 1);
+		return new EytzingerIndex(keys, n);
+	}
+
+	// Hidden recursive routine.
+	// An in-order walk of the implicit tree visits the nodes in sorted order.
+	// The depth of the recursion is only log n.
+	private static int build(long[] sorted, long[] keys, int i, int k) {
+
+		if (k < keys.length) {
+			i = build(sorted, keys, i, 2 * k);
+			keys[k] = sorted[i++];
+			i = build(sorted, keys, i, 2 * k + 1);
+		}
+		return i;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Find x in the index.
+	 *
+	 * @return index of x in the original sorted array or NOT_FOUND if not found.
+	 */
+	public int indexOf(long x) {
+
+		int k = lowerBoundNode(x);
+		return (k != 0 && keys[k] == x) ? sortedIndex(k) : NOT_FOUND;
+	}
+
+	/**
+	 * Find where x would be inserted in the original sorted array.
+	 *
+	 * @return index of the first element that is not smaller than x, or size().
+	 */
+	public int insertionPoint(long x) {
+
+		int k = lowerBoundNode(x);
+		return k == 0 ? size : sortedIndex(k);
+	}
+
+	// Position of node k in the original sorted array.
+	private int sortedIndex(int k) {
+
+		int depth = 31 - Integer.numberOfLeadingZeros(k);
+		int p = ((2 * (k - (1 << depth)) + 1) << (levels - 1 - depth)) - 1; // position in a full tree
+
+		int leavesBefore = (p + 1) >>> 1; // last-level slots left of p in a full tree
+		return p - (leavesBefore - Math.min(leavesBefore, lastLevel));
+	}
+
+	// Return the node holding the first key that is not smaller than x, or 0 if
+	// every key is smaller.
+	private int lowerBoundNode(long x) {
+
+		long[] b = keys;
+		int n = size;
+		int k = 1;
+
+		while (k <= n)
+			k = 2 * k + (b[k] < x ? 1 : 0);
+
+		// Undo the right turns taken after the last left turn.
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+
+	public static void main(String[] args) {
+
+		long[] b = { 1, 3, 4, 5, 6, 7 };
+		EytzingerIndex index = build(b);
+		System.out.println(index.indexOf(6) + " " + index.indexOf(2) + " " + index.insertionPoint(2) + " "
+				+ index.insertionPoint(8)); // 4 -1 1 6
+
+		// Every size up to a few levels, against the plain binary search.
+		boolean same = true;
+		for (int n = 0; n <= 300; n++) {
+			long[] sorted = new long[n];
+			for (int i = 0; i < n; i++)
+				sorted[i] = 2L * i;
+			EytzingerIndex e = build(sorted);
+			for (long x = -1; x <= 2L * n; x++)
+				same &= e.insertionPoint(x) == BinarySearch.insertionPoint(sorted, x)
+						&& e.indexOf(x) == BinarySearch.binarySearch(sorted, x);
+		}
+		System.out.println("same answers as BinarySearch: " + same); // true
+
+		// BinarySearchBenchmark in the benchmarks module compares the two at 1K, 1M and 100M keys.
+	}
+
+}
@@ -73,22 +73,47 @@ public class Factorial {
 	
 	// Recursive implementation of the factorial method
 	// Evaluate n!
+	// The recursion runs on Trampoline, so a large n cannot overflow the thread stack.
 	public static long factorial(int n) {
-		if(n <= 1) // base case
+		return Trampoline.run("Factorial.factorial", FACTORIAL, n);
+	}
+	
+	// The same recursion on the thread stack, for comparison; a large n overflows it.
+	public static long recursiveFactorial(int n) {
+		if(n <= 1)
 			return 1;
-		else
-			return n*factorial (n-1);
-		
+		return n * recursiveFactorial(n - 1);
 	}
+	
+	// n! = n * (n-1)!, with 1! = 0! = 1
+	private static final Trampoline.LinearRecursion FACTORIAL = new Trampoline.LinearRecursion() {
+		@Override
+		public boolean isBase(long n) {
+			return n <= 1; // base case
+		}
+		@Override
+		public long base(long n) {
+			return 1;
+		}
+		@Override
+		public long next(long n) {
+			return n - 1;
+		}
+		@Override
+		public long combine(long n, long result) {
+			return n * result;
+		}
+	};
 
 	public static void main(String[] args) {
 		
-		System.out.println(factorial(10000));
-		System.out.println(factorial(1000));
-		System.out.println(factorial(100));
-		System.out.println(factorial(50));
-		System.out.println(factorial(40));
-		System.out.println(factorial(30));
+		// n! does not fit in a long for n > 20; use the BigInteger version.
+		System.out.println(BigFactorial.factorial(10000));
+		System.out.println(BigFactorial.factorial(1000));
+		System.out.println(BigFactorial.factorial(100));
+		System.out.println(BigFactorial.factorial(50));
+		System.out.println(BigFactorial.factorial(40));
+		System.out.println(BigFactorial.factorial(30));
 		
 		System.out.println(factorial(20));
 		System.out.println(factorial(10));
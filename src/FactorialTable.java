@@ -0,0 +1,210 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = factorials modulo a prime =
+ *
+ *  - Binomial coefficients mod p are quotients of factorials:
+ *
+ *      C(n, k) = n! / (k! (n-k)!)        P(n, k) = n! / (n-k)!
+ *
+ *  - Modulo a prime p, dividing by x is multiplying by its inverse x^(p-2) (Fermat's little theorem).
+ *  - With tables of n! mod p and of their inverses, every coefficient is two or three multiplications.
+ *
+ *  - Filling the inverse table needs only one modular inverse:
+ *
+ *      1/(i-1)! = i * 1/i!
+ *
+ *    so we invert the largest factorial and walk down.
+ *
+ *  - The tables are long[] arrays that grow in chunks when a larger n is asked for,
+ *    so a table created with a large limit costs nothing until it is used.
+ *    Each chunk needs one more modular inverse, for its last factorial.
+ *
+ *
+ * = Lucas' theorem =
+ *
+ *  - For n >= p, n! mod p is 0 and the tables cannot be used directly.
+ *  - Lucas' theorem says that C(n, k) mod p is the product of C(n_i, k_i) mod p over the base-p digits n_i and k_i of n and k.
+ *  - Every digit is below p, so when p is small the table answers each factor.
+ *  - A digit can still be beyond the table limit when the limit is below p - 1.
+ *    That factor is computed directly, as min(k_i, n_i - k_i) multiplications and one inverse,
+ *    so the limit of a table only decides which binomials are fast, not which ones can be computed.
+ *
+ *  - A FactorialTable is not safe for use by several threads at once.
+ *
+ */
+public final class FactorialTable {
+
+	private static final int CHUNK = 1 << 16;
+
+	private final long p;
+	private final int max; // largest n kept in the tables
+
+	private long[] fact = new long[0]; // fact[i] = i! mod p
+	private long[] invFact = new long[0]; // invFact[i] = 1 / i! mod p
+	private int size; // fact and invFact are filled for 0 <= i < size
+
+	/**
+	 * Create a table for the prime p (2 <= p < 2^31) that keeps factorials up to min(limit, p - 1);
+	 * larger factorials are 0 mod p.
+	 * The primality of p is not checked.
+	 */
+	public FactorialTable(long p, int limit) {
+
+		if (p < 2 || p > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Modulus must be a prime between 2 and 2^31 - 1, not " + p);
+		if (limit < 0 || limit == Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Bad limit " + limit);
+
+		this.p = p;
+		this.max = (int) Math.min(limit, p - 1); // n! mod p = 0 for n >= p
+	}
+
+	public long modulus() {
+		return p;
+	}
+
+	// Return n! mod p.
+	// n must be at least p (the answer is 0) or within the table limit; otherwise IllegalArgumentException.
+	public long factorialMod(long n) {
+
+		checkNonNegative(n);
+		if (n >= p)
+			return 0;
+		ensure(n);
+		return fact[(int) n];
+	}
+
+	// Return C(n, k) mod p, the number of ways to choose k of n items, or 0 if k < 0 or k > n.
+	// n must not be negative (IllegalArgumentException). Any n and k are answered:
+	// a factor beyond the table limit costs O(min(k, n - k)) instead of O(1), see Lucas' theorem above.
+	public long binom(long n, long k) {
+
+		checkNonNegative(n);
+		if (k < 0 || k > n)
+			return 0;
+		if (n < p)
+			return smallBinom((int) n, (int) k);
+
+		// Lucas' theorem, one base-p digit at a time.
+		long result = 1;
+		while (n > 0 && result != 0) {
+			int ni = (int) (n % p);
+			int ki = (int) (k % p);
+			result = result * smallBinom(ni, ki) % p;
+			n /= p;
+			k /= p;
+		}
+		return result;
+	}
+
+	// Return P(n, k) mod p, the number of ordered ways to choose k of n items, or 0 if k < 0 or k > n.
+	// n mod p must be within the table limit unless the answer is 0; otherwise IllegalArgumentException.
+	public long perm(long n, long k) {
+
+		checkNonNegative(n);
+		if (k < 0 || k > n)
+			return 0;
+		if (k == 0)
+			return 1;
+
+		// n (n-1) ... (n-k+1) contains a multiple of p unless n and n-k are in the same block of p numbers.
+		if (n / p != (n - k) / p)
+			return 0;
+
+		int top = (int) (n % p);
+		int bottom = (int) ((n - k) % p);
+		ensure(top);
+		return fact[top] * invFact[bottom] % p;
+	}
+
+	// C(n, k) for 0 <= k, n < p.
+	private long smallBinom(int n, int k) {
+
+		if (k > n)
+			return 0;
+		if (n > max)
+			return directBinom(n, Math.min(k, n - k));
+		ensure(n);
+		return fact[n] * invFact[k] % p * invFact[n - k] % p;
+	}
+
+	// C(n, k) for 0 <= k <= n < p without the tables: n (n-1) ... (n-k+1) / k!, with one inverse.
+	private long directBinom(int n, int k) {
+
+		long numerator = 1;
+		long denominator = 1;
+		for (int i = 1; i <= k; i++) {
+			numerator = numerator * (n - k + i) % p;
+			denominator = denominator * i % p;
+		}
+		return numerator * power(denominator, p - 2) % p;
+	}
+
+	// Make sure the tables reach n, growing them by at least one chunk.
+	private void ensure(long n) {
+
+		if (n < size)
+			return;
+		if (n > max)
+			throw new IllegalArgumentException(n + " is beyond the table limit " + max);
+
+		int oldSize = size;
+		int newSize = (int) Math.min((long) max + 1, Math.max(n + 1, (long) oldSize + CHUNK));
+		if (newSize > fact.length) {
+			int capacity = (int) Math.min((long) max + 1, Math.max(newSize, 2L * fact.length));
+			fact = Arrays.copyOf(fact, capacity);
+			invFact = Arrays.copyOf(invFact, capacity);
+		}
+
+		for (int i = oldSize; i < newSize; i++)
+			fact[i] = i == 0 ? 1 : fact[i - 1] * i % p;
+
+		// One inverse for the chunk, then 1/(i-1)! = i * 1/i! down to the old end of the table.
+		invFact[newSize - 1] = power(fact[newSize - 1], p - 2);
+		for (int i = newSize - 1; i > oldSize; i--)
+			invFact[i - 1] = invFact[i] * i % p;
+
+		size = newSize;
+	}
+
+	// x^e mod p by repeated squaring.
+	private long power(long x, long e) {
+
+		long result = 1;
+		x %= p;
+		while (e > 0) {
+			if ((e & 1) != 0)
+				result = result * x % p;
+			x = x * x % p;
+			e >>= 1;
+		}
+		return result;
+	}
+
+	private static void checkNonNegative(long n) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative argument " + n);
+	}
+
+	public static void main(String[] args) {
+
+		FactorialTable table = new FactorialTable(1_000_000_007, 10_000_000);
+		System.out.println(table.factorialMod(10)); // 3628800
+		System.out.println(table.binom(1000, 500)); // 159835829
+		System.out.println(table.perm(10, 3)); // 720
+
+		FactorialTable small = new FactorialTable(13, 100);
+		System.out.println(small.binom(1_000_000_000_000L, 1_000_000)); // 12, by Lucas' theorem
+		System.out.println(new FactorialTable(13, 5).binom(100, 3)); // 6: the digit 9 is beyond the table
+
+		long start = System.nanoTime();
+		long sum = 0;
+		for (int n = 0; n < 1_000_000; n++)
+			sum += table.binom(n, n / 3);
+		System.out.println("1000000 binomials in " + (System.nanoTime() - start) / 1_000_000 + " ms (" + sum + ")");
+	}
+
+}
@@ -0,0 +1,126 @@
+/**
+ *
+ * = Fenwick tree =
+ *
+ *  - PrefixSums answers range sums in O(1), but changing one value changes O(n) prefixes.
+ *  - A Fenwick tree (binary indexed tree) makes both an update and a range sum O(log n).
+ *
+ *  - With indexes from 1, tree[i] holds the sum of the lowbit(i) values ending at i, where lowbit(i) = i & -i
+ *    is the lowest set bit of i. (tree[12] = values 9..12, tree[8] = values 1..8.)
+ *
+ *    - prefix(i): add tree[i], clear the lowest bit of i, repeat until i = 0.
+ *      12 -> 8 -> 0 adds values 9..12 and 1..8.
+ *    - add(i, delta): every node whose range contains i is found by adding the lowest bit instead:
+ *      9 -> 10 -> 12 -> 16 -> ...
+ *
+ *  - Both loops go through at most log n nodes, in a flat array without recursion.
+ *  - build(values) fills the tree in O(n) instead of n updates:
+ *    each node adds its finished sum into the next node up, i + lowbit(i), once.
+ *
+ *  - The sums wrap around on overflow, like +. Not thread-safe.
+ *
+ */
+public final class FenwickTree {
+
+	private final long[] tree; // tree[0] is unused
+
+	// A tree of n zeros.
+	public FenwickTree(int n) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative size " + n);
+		tree = new long[n + 1];
+	}
+
+	// A tree holding values, built in O(n).
+	public static FenwickTree build(long[] values) {
+
+		FenwickTree t = new FenwickTree(values.length);
+		long[] tree = t.tree;
+		System.arraycopy(values, 0, tree, 1, values.length);
+		for (int i = 1; i < tree.length; i++) {
+			int parent = i + (i & -i);
+			if (parent < tree.length)
+				tree[parent] += tree[i];
+		}
+		return t;
+	}
+
+	public int size() {
+		return tree.length - 1;
+	}
+
+	// values[index] += delta.
+	public void add(int index, long delta) {
+
+		checkIndex(index);
+		for (int i = index + 1; i < tree.length; i += i & -i)
+			tree[i] += delta;
+	}
+
+	// values[index] = value.
+	public void set(int index, long value) {
+		add(index, value - get(index));
+	}
+
+	public long get(int index) {
+
+		checkIndex(index);
+		return rangeSum(index, index + 1);
+	}
+
+	// values[0] + ... + values[to-1].
+	public long prefixSum(int to) {
+
+		if (to < 0 || to > size())
+			throw new ArrayIndexOutOfBoundsException("Prefix " + to + " of " + size());
+
+		long sum = 0;
+		for (int i = to; i > 0; i &= i - 1)
+			sum += tree[i];
+		return sum;
+	}
+
+	// values[from] + ... + values[to-1].
+	public long rangeSum(int from, int to) {
+
+		if (from < 0 || from > to || to > size())
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + size());
+		return prefixSum(to) - prefixSum(from);
+	}
+
+	private void checkIndex(int index) {
+
+		if (index < 0 || index >= size())
+			throw new ArrayIndexOutOfBoundsException("Index " + index + " of " + size());
+	}
+
+	public static void main(String[] args) {
+
+		FenwickTree tree = build(new long[] { 3, 1, 4, 1, 5, 9, 2, 6 });
+		System.out.println(tree.rangeSum(2, 6)); // 4 + 1 + 5 + 9 = 19
+		tree.add(3, 10);
+		tree.set(0, 0);
+		System.out.println(tree.rangeSum(2, 6) + " " + tree.prefixSum(8)); // 29 38
+
+		int n = 10_000_000;
+		long[] values = new long[n];
+		for (int i = 0; i < n; i++)
+			values[i] = i & 1023;
+
+		long start = System.nanoTime();
+		FenwickTree big = build(values);
+		System.out.println("built " + n + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+		start = System.nanoTime();
+		long check = 0;
+		for (int q = 0; q < n; q++) {
+			int i = (int) ((q * 0x9E3779B97F4A7C15L >>> 40) % n);
+			big.add(i, 1);
+			check += big.rangeSum(i / 2, i);
+		}
+		System.out.println(n + " updates and range sums in " + (System.nanoTime() - start) / 1_000_000 + " ms (" + check
+				+ ")");
+	}
+
+}
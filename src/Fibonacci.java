@@ -0,0 +1,205 @@
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * = computing Fibonacci numbers efficiently =
+ *
+ *  - FibonacciNumber.fib breaks the compound interest rule: it solves the same instance again and again,
+ *    and the number of calls grows like the Fibonacci numbers themselves.
+ *
+ *  1. Iteration
+ *
+ *  - Keeping the last two numbers in two variables gives F(n) with n-1 additions, in O(n) time.
+ *
+ *  2. Fast doubling
+ *
+ *  - The Fibonacci numbers satisfy
+ *
+ *      F(2k)   = F(k) * (2F(k+1) - F(k))
+ *      F(2k+1) = F(k)^2 + F(k+1)^2
+ *
+ *  - So from the pair F(k), F(k+1) we get the pair for 2k and for 2k+1 with a few multiplications.
+ *  - Reading the bits of n from the most significant one, each bit doubles k (and adds 1 if the bit is set),
+ *    so F(n) takes O(log n) steps.
+ *
+ *  - Every entry point takes the index as a long.
+ *  - F(92) is the largest Fibonacci number that fits in a long.
+ *    The long versions use exact arithmetic and throw ArithmeticException instead of returning a wrapped value.
+ *
+ *  3. Huge n
+ *
+ *  - F(n) has about 0.694n bits, so for large n the cost is all in the last few multiplications.
+ *    big accepts n up to MAX_BIG_INDEX, which keeps the result well within the size limit of a BigInteger.
+ *  - BigInteger.multiply switches to Karatsuba and then Toom-Cook 3-way multiplication for large operands,
+ *    and squares (a.multiply(a)) with a dedicated algorithm,
+ *    so fast doubling on BigInteger is dominated by the last squaring.
+ *
+ *  4. Caching
+ *
+ *  - A Fibonacci object keeps a bounded cache of the values it has computed,
+ *    so repeated queries cost one lookup.
+ *  - The least recently used value is dropped when the cache is full.
+ *
+ */
+public final class Fibonacci {
+
+	// Largest n for which F(n) fits in a long.
+	public static final int MAX_LONG_INDEX = 92;
+
+	// Largest n accepted by big and get.
+	public static final long MAX_BIG_INDEX = Integer.MAX_VALUE;
+
+	private final Map<Long, BigInteger> cache;
+
+	// Create an engine that caches up to cacheSize values.
+	public Fibonacci(int cacheSize) {
+
+		if (cacheSize < 0)
+			throw new IllegalArgumentException("Negative cache size " + cacheSize);
+
+		cache = new LinkedHashMap<Long, BigInteger>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, BigInteger> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	// Return F(n), from the cache if it was computed before.
+	public BigInteger get(long n) {
+
+		synchronized (cache) {
+			BigInteger value = cache.get(n);
+			if (value != null)
+				return value;
+		}
+
+		BigInteger value = big(n);
+		synchronized (cache) {
+			cache.put(n, value);
+		}
+		return value;
+	}
+
+	// Compute F(n) with a loop, O(n).
+	// Throws ArithmeticException if F(n) does not fit in a long.
+	public static long iterative(long n) {
+
+		checkIndex(n);
+
+		long previous = 0; // F(i-1)
+		long current = 0; // F(i)
+		if (n > 0)
+			current = 1;
+
+		for (long i = 1; i < n; i++) {
+			long next = Math.addExact(previous, current);
+			previous = current;
+			current = next;
+		}
+		return current;
+	}
+
+	// Compute F(n) by fast doubling, O(log n).
+	// Throws ArithmeticException if F(n) does not fit in a long.
+	public static long fastDoubling(long n) {
+
+		checkIndex(n);
+		if (n == 0)
+			return 0;
+
+		long a = 0; // F(k)
+		long b = 1; // F(k+1)
+
+		// All but the last bit: keep the pair F(k), F(k+1).
+		for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 1; bit--) {
+			long c = Math.multiplyExact(a, Math.subtractExact(Math.multiplyExact(2, b), a)); // F(2k)
+			long d = Math.addExact(Math.multiplyExact(a, a), Math.multiplyExact(b, b)); // F(2k+1)
+			if (((n >>> bit) & 1) == 0) {
+				a = c;
+				b = d;
+			} else {
+				a = d;
+				b = Math.addExact(c, d);
+			}
+		}
+
+		// The last bit: only F(n) is needed, not F(n+1), which may overflow when F(n) does not.
+		if ((n & 1) == 0)
+			return Math.multiplyExact(a, Math.subtractExact(Math.multiplyExact(2, b), a));
+		else
+			return Math.addExact(Math.multiplyExact(a, a), Math.multiplyExact(b, b));
+	}
+
+	// Compute F(n) by fast doubling on BigInteger, for 0 <= n <= MAX_BIG_INDEX.
+	public static BigInteger big(long n) {
+
+		checkIndex(n);
+		if (n > MAX_BIG_INDEX)
+			throw new IllegalArgumentException("Fibonacci index " + n + " is larger than " + MAX_BIG_INDEX);
+		if (n <= MAX_LONG_INDEX)
+			return BigInteger.valueOf(fastDoubling(n));
+
+		BigInteger a = BigInteger.ZERO; // F(k)
+		BigInteger b = BigInteger.ONE; // F(k+1)
+
+		for (int bit = 63 - Long.numberOfLeadingZeros(n); bit >= 1; bit--) {
+			BigInteger c = a.multiply(b.shiftLeft(1).subtract(a));
+			BigInteger d = a.multiply(a).add(b.multiply(b));
+			if (((n >>> bit) & 1) == 0) {
+				a = c;
+				b = d;
+			} else {
+				a = d;
+				b = c.add(d);
+			}
+		}
+
+		if ((n & 1) == 0)
+			return a.multiply(b.shiftLeft(1).subtract(a));
+		else
+			return a.multiply(a).add(b.multiply(b));
+	}
+
+	private static void checkIndex(long n) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative Fibonacci index " + n);
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println(iterative(90) + " " + fastDoubling(92));
+		System.out.println(big(1000));
+
+		try {
+			fastDoubling(93);
+		} catch (ArithmeticException e) {
+			System.out.println("F(93) does not fit in a long");
+		}
+
+		try {
+			big(MAX_BIG_INDEX + 1);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		}
+
+		// The modes agree with each other and with the recursive routine.
+		boolean same = true;
+		for (long n = 0; n <= MAX_LONG_INDEX; n++)
+			same &= iterative(n) == fastDoubling(n) && big(n).longValueExact() == fastDoubling(n);
+		same &= FibonacciNumber.fib(25) == fastDoubling(25);
+		System.out.println("same values: " + same); // true
+
+		Fibonacci cached = new Fibonacci(128);
+		System.out.println(cached.get(1_000_000).bitLength() + " bits, same object from the cache: "
+				+ (cached.get(1_000_000) == cached.get(1_000_000))); // 694241 bits, true
+
+		// FibonacciBenchmark in the benchmarks module times the modes and the cache.
+	}
+
+}
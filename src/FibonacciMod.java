@@ -0,0 +1,245 @@
+/**
+ *
+ * = Fibonacci numbers modulo m =
+ *
+ *  - F(n) for n around 10^18 has far too many digits to compute, but F(n) mod m only needs numbers below m.
+ *
+ *  - The Fibonacci recurrence is a matrix product:
+ *
+ *      | F(n+1) F(n)   |   | 1 1 |^n
+ *      | F(n)   F(n-1) | = | 1 0 |
+ *
+ *  - So F(n) mod m is one entry of a matrix power, which repeated squaring computes in O(log n) matrix products,
+ *    reducing every entry mod m as it goes.
+ *  - All these matrices are symmetric, so we only keep three of the four entries.
+ *
+ *  - The entries are below m, which may be close to 2^63, so their products need up to 126 bits.
+ *    Math.multiplyHigh gives the upper 64 bits of the product and we reduce the 128-bit result mod m.
+ *
+ *
+ * = Pisano periods =
+ *
+ *  - Modulo m, the Fibonacci sequence is periodic; the length of the period is the Pisano period of m,
+ *    and it is at most 6m.
+ *    (mod 2: 0 1 1 0 1 1 ..., period 3)
+ *  - For small m we find the period once, by walking the sequence until it returns to 0 1, and cache it.
+ *  - Every later query for the same m first reduces n modulo the period.
+ *  - The cache is direct-mapped: a fixed table of slots, where a modulus may only go in the slot its hash picks
+ *    and replaces whatever period was there. Its size is bounded, and lookups take no lock.
+ *    The period is found before it is stored, so a slow walk never blocks queries for other moduli.
+ *
+ *
+ * = many queries =
+ *
+ *  - For a batch of indexes with the same m, the squares Q, Q^2, Q^4, Q^8... are computed only once.
+ *  - Each query then multiplies together the squares for the bits set in its index.
+ *
+ */
+public final class FibonacciMod {
+
+	// Moduli up to this value get their Pisano period cached.
+	private static final long PISANO_LIMIT = 1 << 20;
+
+	// The Pisano period cache has 2^PISANO_BITS slots.
+	private static final int PISANO_BITS = 8;
+
+	// A cached period. The fields are final, so a slot read without a lock sees a complete entry or null.
+	private static final class Period {
+
+		final long m;
+		final long period;
+
+		Period(long m, long period) {
+			this.m = m;
+			this.period = period;
+		}
+	}
+
+	private static final Period[] PISANO = new Period[1 << PISANO_BITS];
+
+	private FibonacciMod() {
+	}
+
+	// Return F(n) mod m, for n >= 0 and m >= 1.
+	public static long fibMod(long n, long m) {
+
+		check(n, m);
+		if (m == 1)
+			return 0;
+
+		n = reduce(n, m);
+
+		// result = Q^n, square = Q^(2^i), each kept as (F(k+1), F(k), F(k-1)).
+		long r0 = 1, r1 = 0, r2 = 1;
+		long s0 = 1, s1 = 1, s2 = 0;
+
+		while (n > 0) {
+			if ((n & 1) != 0) {
+				long t0 = addMod(mulMod(r0, s0, m), mulMod(r1, s1, m), m);
+				long t1 = addMod(mulMod(r0, s1, m), mulMod(r1, s2, m), m);
+				long t2 = addMod(mulMod(r1, s1, m), mulMod(r2, s2, m), m);
+				r0 = t0;
+				r1 = t1;
+				r2 = t2;
+			}
+			n >>>= 1;
+			if (n > 0) {
+				long t0 = addMod(mulMod(s0, s0, m), mulMod(s1, s1, m), m);
+				long t1 = addMod(mulMod(s0, s1, m), mulMod(s1, s2, m), m);
+				long t2 = addMod(mulMod(s1, s1, m), mulMod(s2, s2, m), m);
+				s0 = t0;
+				s1 = t1;
+				s2 = t2;
+			}
+		}
+		return r1;
+	}
+
+	// Return F(ns[i]) mod m for every i, sharing the squares of the matrix.
+	public static long[] fibMod(long[] ns, long m) {
+
+		long[] result = new long[ns.length];
+		if (ns.length == 0)
+			return result;
+
+		long[] reduced = new long[ns.length];
+		long max = 0;
+		for (int i = 0; i < ns.length; i++) {
+			check(ns[i], m);
+			reduced[i] = m == 1 ? 0 : reduce(ns[i], m);
+			max = Math.max(max, reduced[i]);
+		}
+		if (m == 1)
+			return result;
+
+		// squares[3i .. 3i+2] is Q^(2^i).
+		int bits = 64 - Long.numberOfLeadingZeros(max);
+		long[] squares = new long[3 * Math.max(bits, 1)];
+		squares[0] = 1;
+		squares[1] = 1;
+		squares[2] = 0;
+		for (int i = 1; i < bits; i++) {
+			long s0 = squares[3 * i - 3], s1 = squares[3 * i - 2], s2 = squares[3 * i - 1];
+			squares[3 * i] = addMod(mulMod(s0, s0, m), mulMod(s1, s1, m), m);
+			squares[3 * i + 1] = addMod(mulMod(s0, s1, m), mulMod(s1, s2, m), m);
+			squares[3 * i + 2] = addMod(mulMod(s1, s1, m), mulMod(s2, s2, m), m);
+		}
+
+		for (int q = 0; q < ns.length; q++) {
+			long n = reduced[q];
+			long r0 = 1, r1 = 0, r2 = 1;
+			for (int i = 0; n != 0; i++, n >>>= 1) {
+				if ((n & 1) == 0)
+					continue;
+				long s0 = squares[3 * i], s1 = squares[3 * i + 1], s2 = squares[3 * i + 2];
+				long t0 = addMod(mulMod(r0, s0, m), mulMod(r1, s1, m), m);
+				long t1 = addMod(mulMod(r0, s1, m), mulMod(r1, s2, m), m);
+				long t2 = addMod(mulMod(r1, s1, m), mulMod(r2, s2, m), m);
+				r0 = t0;
+				r1 = t1;
+				r2 = t2;
+			}
+			result[q] = r1;
+		}
+		return result;
+	}
+
+	// Return the Pisano period of m: the period of F(n) mod m.
+	public static long pisanoPeriod(long m) {
+
+		if (m < 1)
+			throw new IllegalArgumentException("Modulus must be positive, not " + m);
+		if (m == 1)
+			return 1;
+		if (m > PISANO_LIMIT)
+			return findPeriod(m);
+
+		int slot = (int) ((m * 0x9E3779B97F4A7C15L) >>> (64 - PISANO_BITS)); // multiplicative hash
+		Period cached = PISANO[slot];
+		if (cached != null && cached.m == m)
+			return cached.period;
+
+		// Two threads may both walk the sequence for the same m; both store the same period.
+		long period = findPeriod(m);
+		PISANO[slot] = new Period(m, period);
+		return period;
+	}
+
+	// Walk the sequence mod m until it returns to 0, 1.
+	private static long findPeriod(long m) {
+
+		long previous = 0;
+		long current = 1;
+		for (long i = 1;; i++) {
+			long next = addMod(previous, current, m);
+			previous = current;
+			current = next;
+			if (previous == 0 && current == 1)
+				return i;
+		}
+	}
+
+	// Reduce n by the cached Pisano period of m, for small m.
+	private static long reduce(long n, long m) {
+
+		return m <= PISANO_LIMIT ? n % pisanoPeriod(m) : n;
+	}
+
+	// Return (a * b) mod m, for 0 <= a, b < m.
+	static long mulMod(long a, long b, long m) {
+
+		long high = Math.multiplyHigh(a, b);
+		long low = a * b;
+		if (high == 0)
+			return Long.remainderUnsigned(low, m);
+
+		// high < m, because a * b < m * m < m * 2^64.
+		// Shift the 128-bit product into the remainder a few bits at a time:
+		// r < m < 2^(64 - shift), so r << shift still fits in 64 unsigned bits.
+		int shift = Long.numberOfLeadingZeros(m);
+		long r = high;
+		for (int remaining = 64; remaining > 0;) {
+			int s = Math.min(shift, remaining);
+			r = Long.remainderUnsigned((r << s) | (low >>> (64 - s)), m);
+			low <<= s;
+			remaining -= s;
+		}
+		return r;
+	}
+
+	// Return (a + b) mod m, for 0 <= a, b < m.
+	static long addMod(long a, long b, long m) {
+
+		long sum = a - m + b; // cannot overflow: a - m < 0 <= b
+		return sum < 0 ? sum + m : sum;
+	}
+
+	private static void check(long n, long m) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative Fibonacci index " + n);
+		if (m < 1)
+			throw new IllegalArgumentException("Modulus must be positive, not " + m);
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println(fibMod(10, 1000)); // 55
+		System.out.println(fibMod(1_000_000_000_000_000_000L, 1_000_000_007)); // 209783453
+		System.out.println(pisanoPeriod(10)); // 60
+		System.out.println(fibMod(1_000_000_000_000_000_000L, Long.MAX_VALUE));
+
+		// The batch shares the squares of the matrix, and gives the same values as one query at a time.
+		long[] ns = new long[1000];
+		for (int i = 0; i < ns.length; i++)
+			ns[i] = 1_000_000_000_000_000_000L - 12345L * i;
+		long[] bulk = fibMod(ns, 999_999_999_989L);
+		boolean same = true;
+		for (int i = 0; i < ns.length; i++)
+			same &= bulk[i] == fibMod(ns[i], 999_999_999_989L);
+		System.out.println("same values in bulk: " + same); // true
+
+		// FibonacciModBenchmark in the benchmarks module compares the two.
+	}
+
+}
@@ -96,10 +96,45 @@ public class FibonacciNumber {
 	// Bad algorithm.	
 	public static long fib(int n) {
 		
+		if (!RecursionMetrics.ENABLED)
+			return fibRec(n);
+		
+		// Driver routine: measure the whole recursion as one invocation.
+		RecursionProbe probe = RecursionMetrics.begin("FibonacciNumber.fib", n);
+		try {
+			return fib(n, null, probe, 1);
+		} finally {
+			probe.end();
+		}
+	}
+	
+	// Hidden recursive routine.
+	private static long fibRec(int n) {
+		
+		if(n <= 1)
+			return n;
+		return fibRec(n-1)+fibRec(n-2);
+	}
+	
+	// The same recursion, instrumented and memoized; used by the driver when RecursionMetrics.ENABLED and by Memoized.fib.
+	// If cache is not null, fib(n) is looked up in it before it is computed, and stored in it after.
+	// If probe is not null, every call reports itself and its depth to it.
+	static long fib(int n, LongCache cache, RecursionProbe probe, int depth) {
+		
+		if (probe != null)
+			probe.enter(depth);
 		if(n <= 1)
 			return n;
-		else
-			return fib(n-1)+fib(n-2);
+		if(cache != null) {
+			long cached = cache.getOrDefault(n, -1); // fib(n) >= 0
+			if(cached >= 0)
+				return cached;
+		}
+		
+		long value = fib(n-1, cache, probe, depth+1)+fib(n-2, cache, probe, depth+1);
+		if(cache != null)
+			cache.put(n, value);
+		return value;
 	}
 
 }
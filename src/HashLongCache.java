@@ -0,0 +1,177 @@
+import java.util.function.LongUnaryOperator;
+
+/**
+ *
+ * = bounded hash cache for sparse keys =
+ *
+ *  - When the keys are large or scattered, an array indexed by the key is too big.
+ *  - This cache holds at most capacity() entries in flat primitive arrays (open addressing, no entry objects):
+ *
+ *    - The slots are grouped in sets of WAYS slots, and a key can only live in the set its hash picks,
+ *      as in a set-associative processor cache. A lookup reads at most WAYS adjacent slots.
+ *    - When the set is full, one of its entries is evicted with the CLOCK algorithm, an approximation of LRU:
+ *      every hit sets the entry's referenced bit; the set's clock hand sweeps over the slots,
+ *      clearing referenced bits, and evicts the first entry whose bit is already clear.
+ *
+ *  - The sets are guarded by a fixed number of locks (lock striping), so threads working on different sets
+ *    rarely wait for each other.
+ *  - The function is called outside the lock: the lock is taken once to look the key up and once to store the result.
+ *
+ */
+public final class HashLongCache implements LongCache {
+
+	// Slots per set.
+	private static final int WAYS = 4;
+
+	// Number of locks; a power of two.
+	private static final int STRIPES = 64;
+
+	private static final byte USED = 1;
+	private static final byte REFERENCED = 2;
+
+	private final long[] keys;
+	private final long[] values;
+	private final byte[] state; // 0 for an empty slot, else USED and maybe REFERENCED
+	private final byte[] hands; // clock hand of each set
+	private final int setBits;
+	private final Object[] locks;
+	private final MemoStats stats = new MemoStats();
+
+	// A cache of at least maxEntries entries (rounded up to a power of two).
+	public HashLongCache(int maxEntries) {
+
+		if (maxEntries < 1 || maxEntries > 1 << 30)
+			throw new IllegalArgumentException("Cannot hold " + maxEntries + " entries");
+
+		int slots = Math.max(WAYS, Integer.highestOneBit(maxEntries - 1) << 1);
+		if (maxEntries == 1)
+			slots = WAYS;
+		int sets = slots / WAYS;
+		setBits = Integer.numberOfTrailingZeros(sets);
+
+		keys = new long[slots];
+		values = new long[slots];
+		state = new byte[slots];
+		hands = new byte[sets];
+
+		locks = new Object[STRIPES];
+		for (int i = 0; i < STRIPES; i++)
+			locks[i] = new Object();
+	}
+
+	// Largest number of entries held at once.
+	public int capacity() {
+		return keys.length;
+	}
+
+	@Override
+	public long get(long key, LongUnaryOperator function) {
+
+		int set = setOf(key);
+		Object lock = locks[set & (STRIPES - 1)];
+
+		synchronized (lock) {
+			int slot = find(set, key);
+			if (slot >= 0) {
+				state[slot] |= REFERENCED;
+				stats.hit();
+				return values[slot];
+			}
+		}
+
+		stats.miss();
+		long value = function.applyAsLong(key);
+
+		synchronized (lock) {
+			if (find(set, key) < 0) // another thread may have stored it meanwhile
+				insert(set, key, value);
+		}
+		return value;
+	}
+
+	@Override
+	public long getOrDefault(long key, long absent) {
+
+		int set = setOf(key);
+		synchronized (locks[set & (STRIPES - 1)]) {
+			int slot = find(set, key);
+			if (slot >= 0) {
+				state[slot] |= REFERENCED;
+				stats.hit();
+				return values[slot];
+			}
+		}
+		stats.miss();
+		return absent;
+	}
+
+	@Override
+	public void put(long key, long value) {
+
+		int set = setOf(key);
+		synchronized (locks[set & (STRIPES - 1)]) {
+			if (find(set, key) < 0)
+				insert(set, key, value);
+		}
+	}
+
+	@Override
+	public void clear() {
+
+		int sets = hands.length;
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			synchronized (locks[stripe]) {
+				for (int set = stripe; set < sets; set += STRIPES)
+					for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++)
+						state[slot] = 0;
+			}
+		}
+	}
+
+	@Override
+	public MemoStats stats() {
+		return stats;
+	}
+
+	private int setOf(long key) {
+		return setBits == 0 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - setBits));
+	}
+
+	// Slot of key in set, or -1. The caller holds the lock of the set.
+	private int find(int set, long key) {
+
+		for (int slot = set * WAYS; slot < set * WAYS + WAYS; slot++)
+			if (state[slot] != 0 && keys[slot] == key)
+				return slot;
+		return -1;
+	}
+
+	// Store key in set, evicting an entry if the set is full. The caller holds the lock of the set.
+	private void insert(int set, long key, long value) {
+
+		int base = set * WAYS;
+		int slot = -1;
+		for (int s = base; s < base + WAYS; s++) {
+			if (state[s] == 0) {
+				slot = s;
+				break;
+			}
+		}
+
+		if (slot < 0) {
+			int hand = hands[set];
+			while ((state[base + hand] & REFERENCED) != 0) {
+				state[base + hand] &= ~REFERENCED;
+				hand = (hand + 1) % WAYS;
+			}
+			slot = base + hand;
+			hands[set] = (byte) ((hand + 1) % WAYS);
+			stats.eviction();
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		state[slot] = USED;
+	}
+
+}
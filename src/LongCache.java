@@ -0,0 +1,30 @@
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A cache from long keys to long values, for memoizing a pure function of one integer argument.
+ *
+ * - Keys and values are primitives, so a lookup does not box.
+ * - get(key, function) returns the cached value, or calls function outside any lock and caches the result.
+ *   The function may itself call get on the same cache, as a memoized recursive routine does.
+ * - getOrDefault and put do the same in two steps, for a recursive routine that computes the value itself:
+ *   a lambda that captures the routine's arguments would be a new object on every call.
+ * - Two threads missing the same key at the same time may both compute it; the function must be pure,
+ *   so both get the same value.
+ */
+public interface LongCache {
+
+	// The value for key, computed by function if it is not cached.
+	long get(long key, LongUnaryOperator function);
+
+	// The value for key, or absent if it is not cached. Counts a hit or a miss like get.
+	long getOrDefault(long key, long absent);
+
+	// Cache value for key, as get does after a miss.
+	void put(long key, long value);
+
+	// Remove every entry; the statistics are kept.
+	void clear();
+
+	MemoStats stats();
+
+}
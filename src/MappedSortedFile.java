@@ -0,0 +1,204 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * = binary search in a sorted file =
+ *
+ *  - A file of fixed-width records, sorted by a key stored at the same offset in every record,
+ *    is a sorted array that happens to live on disk.
+ *  - Instead of reading it into the heap, we map the file into memory and let binary search probe the records in place.
+ *  - The operating system reads in only the pages that are actually touched.
+ *
+ *  - A single MappedByteBuffer cannot be larger than 2 GB,
+ *    so a large file is mapped in several chunks, each holding a whole number of records.
+ *
+ *  - The first levels of a binary search always probe the same few records (the middle, the quarters, ...),
+ *    and on a cold file each of them is a page fault.
+ *  - We therefore keep a small sparse index in the heap: the key of every stride-th record.
+ *    A search first bisects the sparse index and then only the stride records between two samples.
+ *
+ *  - The index has at most MAX_SAMPLES keys (32 KB), so it stays in the L1 or L2 cache,
+ *    and opening the file reads at most that many pages, however large the file is.
+ *    It covers the top levels of the search; for a small file that is one sample per page,
+ *    for a large one the stride spans many pages.
+ *  - The pages between two samples are read lazily, by the searches that reach them,
+ *    and then stay in the page cache for later searches.
+ *
+ *  - Keys are 4 or 8 byte signed integers, stored big-endian or little-endian.
+ *
+ */
+public final class MappedSortedFile implements Closeable {
+
+	private static final long NOT_FOUND = -1;
+
+	// Target number of bytes of records between two samples of the sparse index.
+	private static final int PAGE_SIZE = 4096;
+
+	// Upper bound on the number of samples kept in the heap, and so on the pages read when opening.
+	private static final int MAX_SAMPLES = 1 << 12;
+
+	private final FileChannel channel;
+	private final ByteBuffer[] chunks;
+	private final int recordWidth;
+	private final int keyOffset;
+	private final int keyWidth;
+	private final long recordsPerChunk;
+	private final long count;
+
+	private final long[] samples; // samples[i] is the key of record i * stride
+	private final long stride;
+
+	private MappedSortedFile(FileChannel channel, int recordWidth, int keyOffset, int keyWidth, ByteOrder order)
+			throws IOException {
+
+		this.channel = channel;
+		this.recordWidth = recordWidth;
+		this.keyOffset = keyOffset;
+		this.keyWidth = keyWidth;
+
+		long size = channel.size();
+		if (size % recordWidth != 0)
+			throw new IllegalArgumentException(
+					"File size " + size + " is not a multiple of the record width " + recordWidth);
+
+		count = size / recordWidth;
+		recordsPerChunk = Integer.MAX_VALUE / recordWidth;
+
+		int chunkCount = (int) ((count + recordsPerChunk - 1) / recordsPerChunk);
+		chunks = new ByteBuffer[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			long first = i * recordsPerChunk;
+			long records = Math.min(recordsPerChunk, count - first);
+			MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, first * recordWidth,
+					records * recordWidth);
+			chunks[i] = chunk.order(order);
+		}
+
+		long perPage = Math.max(1, PAGE_SIZE / recordWidth);
+		stride = Math.max(perPage, (count + MAX_SAMPLES - 1) / MAX_SAMPLES);
+		samples = new long[(int) ((count + stride - 1) / stride)];
+		for (int i = 0; i < samples.length; i++)
+			samples[i] = keyAt(i * stride);
+	}
+
+	/**
+	 * Map a file of 8-byte big-endian keys with no payload.
+	 */
+	public static MappedSortedFile open(Path path) throws IOException {
+
+		return open(path, Long.BYTES, 0, Long.BYTES, ByteOrder.BIG_ENDIAN);
+	}
+
+	/**
+	 * Map a file of fixed-width records sorted by key.
+	 *
+	 * @param recordWidth number of bytes in each record.
+	 * @param keyOffset   offset of the key inside a record.
+	 * @param keyWidth    4 for int keys or 8 for long keys.
+	 * @param order       byte order of the keys.
+	 */
+	public static MappedSortedFile open(Path path, int recordWidth, int keyOffset, int keyWidth, ByteOrder order)
+			throws IOException {
+
+		if (keyWidth != Integer.BYTES && keyWidth != Long.BYTES)
+			throw new IllegalArgumentException("Key width must be 4 or 8, not " + keyWidth);
+		if (keyOffset < 0 || recordWidth <= 0 || keyOffset + keyWidth > recordWidth)
+			throw new IllegalArgumentException(
+					"Key at offset " + keyOffset + " does not fit in a record of " + recordWidth + " bytes");
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new MappedSortedFile(channel, recordWidth, keyOffset, keyWidth, order);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// Number of records in the file.
+	public long size() {
+		return count;
+	}
+
+	// Key of record i.
+	public long keyAt(long i) {
+
+		ByteBuffer chunk = chunks[(int) (i / recordsPerChunk)];
+		int offset = (int) (i % recordsPerChunk) * recordWidth + keyOffset;
+		return keyWidth == Long.BYTES ? chunk.getLong(offset) : chunk.getInt(offset);
+	}
+
+	/**
+	 * Find x in the file.
+	 *
+	 * @return index of the record holding x or NOT_FOUND if not found.
+	 */
+	public long binarySearch(long x) {
+
+		long i = insertionPoint(x);
+		return (i < count && keyAt(i) == x) ? i : NOT_FOUND;
+	}
+
+	/**
+	 * Find where x would be inserted to keep the file sorted.
+	 *
+	 * @return index of the first record whose key is not smaller than x, or size().
+	 */
+	public long insertionPoint(long x) {
+
+		// Every sample before s is smaller than x and sample s is not,
+		// so the answer lies after record (s - 1) * stride and at or before record s * stride.
+		int s = BinarySearch.insertionPoint(samples, x);
+		long low = s == 0 ? 0 : (s - 1) * stride + 1;
+		long high = Math.min(s * stride, count);
+
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (keyAt(mid) < x)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	// Closing the channel does not unmap the chunks; they are released when garbage collected.
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		// Records of 16 bytes: a little-endian long key followed by a long payload.
+		Path path = Files.createTempFile("sorted", ".bin");
+		int n = 1_000_000;
+		ByteBuffer buffer = ByteBuffer.allocate(n * 16).order(ByteOrder.LITTLE_ENDIAN);
+		for (int i = 0; i < n; i++) {
+			buffer.putLong(3L * i);
+			buffer.putLong(i);
+		}
+		buffer.flip();
+		try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining())
+				out.write(buffer);
+		}
+
+		try (MappedSortedFile file = open(path, 16, 0, Long.BYTES, ByteOrder.LITTLE_ENDIAN)) {
+			System.out.println(file.binarySearch(300)); // 100
+			System.out.println(file.binarySearch(301)); // NOT_FOUND
+			System.out.println(file.insertionPoint(301)); // 101
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts hits, misses and evictions of a LongCache.
+ *
+ * - The counters are LongAdders, so many threads can update them without contending on one variable.
+ */
+public final class MemoStats {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void eviction() {
+		evictions.increment();
+	}
+
+	public long hits() {
+		return hits.sum();
+	}
+
+	public long misses() {
+		return misses.sum();
+	}
+
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	// Fraction of lookups that were hits, or 0 if there were none.
+	public double hitRate() {
+
+		long h = hits();
+		long total = h + misses();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	public void reset() {
+
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public String toString() {
+		return hits() + " hits, " + misses() + " misses, " + evictions() + " evictions ("
+				+ String.format("%.1f", 100 * hitRate()) + "% hits)";
+	}
+
+}
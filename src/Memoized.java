@@ -0,0 +1,81 @@
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * = memoized recursive routines =
+ *
+ *  - FibonacciNumber.fib and CoinChanging.makeChange are slow because they solve the same subproblems over and over:
+ *    fib(n-2) is computed once inside fib(n-1) and again by fib(n).
+ *  - Memoization keeps the recursive code as it is, but looks every subproblem up in a cache first,
+ *    and stores the answer after computing it. Each subproblem is then solved only once.
+ *
+ *  - The routines here run the recursions of FibonacciNumber and CoinChanging themselves:
+ *    their hidden recursive routines take a cache, and look each subproblem up in it when there is one.
+ *    There is only one copy of each algorithm to maintain.
+ *  - Which cache to pass:
+ *
+ *    - A DenseLongCache suits fib, whose keys are 0..n.
+ *    - A HashLongCache with a size bound suits sparse or unbounded keys; evicted answers are simply computed again.
+ *      If the cache is much smaller than the set of subproblems in use, that can bring back the exponential running time.
+ *
+ *  - A cache must only be shared by calls that compute the same function:
+ *    for makeChange, one cache per coin set.
+ *  - The recursion still goes one level deeper per subproblem, so very large arguments can overflow the thread stack.
+ *
+ */
+public final class Memoized {
+
+	private Memoized() {
+	}
+
+	// FibonacciNumber.fib, looking every fib(k) up in cache.
+	public static long fib(int n, LongCache cache) {
+		return FibonacciNumber.fib(n, Objects.requireNonNull(cache), null, 1);
+	}
+
+	// CoinChanging.makeChange, looking every amount up in cache. The cache must be used for these coins only.
+	public static int makeChange(int[] coins, int change, LongCache cache) {
+		return CoinChanging.makeChange(coins, change, Objects.requireNonNull(cache), null, 1);
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+
+		DenseLongCache fibCache = new DenseLongCache(Fibonacci.MAX_LONG_INDEX + 1);
+		System.out.println(fib(Fibonacci.MAX_LONG_INDEX, fibCache) + ": " + fibCache.stats());
+		System.out.println(fib(50, fibCache) + ": " + fibCache.stats());
+
+		// fib only needs the last two answers, so even a tiny cache that keeps evicting works.
+		HashLongCache small = new HashLongCache(8);
+		System.out.println(fib(Fibonacci.MAX_LONG_INDEX, small) + ": " + small.stats());
+
+		// makeChange needs every smaller amount; a cache much smaller than that brings back the exponential time.
+		int[] coins = { 1, 5, 10, 21, 25 };
+		HashLongCache changeCache = new HashLongCache(2048);
+		long start = System.nanoTime();
+		int count = makeChange(coins, 1000, changeCache);
+		System.out.println(count + " coins for 1000 cents: " + changeCache.stats() + ", "
+				+ (System.nanoTime() - start) / 1_000_000 + " ms");
+		System.out.println("makeChange(63): " + makeChange(coins, 63, new HashLongCache(64)));
+
+		// Many threads sharing one cache.
+		HashLongCache shared = new HashLongCache(1 << 12);
+		int threads = 4;
+		long[] results = new long[threads];
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			pool.execute(() -> {
+				for (int round = 0; round < 1000; round++)
+					results[id] += fib(40 + (round + id) % 50, shared);
+			});
+		}
+		pool.shutdown();
+		pool.awaitTermination(1, TimeUnit.MINUTES);
+		System.out.println(Arrays.toString(results) + ": " + shared.stats());
+	}
+
+}
@@ -0,0 +1,219 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ *
+ * = filling the change-making table in parallel =
+ *
+ *  - In DynamicProgrammingCoinChanging.makeChange, the answer for cents depends on the answers for cents - coins[j].
+ *  - With a 1-cent coin that includes cents - 1, so along the amount axis every cell waits for the one before it,
+ *    and splitting the amounts into independent blocks does not work for any real coin set.
+ *
+ *  - Instead we split the work by coin. Let used_j be the table for the first j+1 coins only:
+ *
+ *      used_j[cents] = min(used_(j-1)[cents], used_j[cents - coins[j]] + 1)
+ *
+ *    Stage j turns used_(j-1) into used_j in place, sweeping up the amounts, and the last stage leaves the answer.
+ *
+ *  - The amounts are cut into blocks of BLOCK cells, and the stages run as a pipeline over the blocks (a wavefront):
+ *    while stage 0 works on block b, stage 1 works on an earlier block, stage 2 on an earlier one still, and so on.
+ *    Each step of the wavefront runs one block of every stage at once on a ForkJoinPool, so up to one thread per coin is busy.
+ *
+ *  - Stage j may start a block once stage j-1 is done with it. It must also stay far enough behind
+ *    that stage j-1 no longer reads that block: stage j-1 reads coins[j-1] cells back,
+ *    which reaches lag = coins[j-1] / BLOCK blocks back, rounded up.
+ *    So stage j runs lag + 1 blocks behind stage j-1. Every cell is then read and written in the same order as in
+ *    a stage-by-stage computation, and no two tasks of a step touch the same cell.
+ *
+ *  - Once the counts are known, lastCoin no longer depends on other lastCoin cells:
+ *    lastCoin[cents] is the first coin with coinsUsed[cents - coin] + 1 == coinsUsed[cents].
+ *    That pass is split across the pool like any independent loop.
+ *    Taking the first such coin picks the same coin as the sequential algorithm, so with a 1-cent coin both tables are identical.
+ *
+ *  - Without a 1-cent coin some amounts cannot be made. The sequential algorithm fills them with a count of
+ *    cents 1-cent coins that do not exist. Here their coinsUsed is UNREACHABLE and their lastCoin is 0.
+ *
+ *  - The Vector API is not available on the Java version this project targets,
+ *    so the sweeps rely on the JIT's own loop optimizations.
+ *
+ */
+public final class ParallelCoinChanging {
+
+	// Value in coinsUsed for an amount that cannot be made with the coins available.
+	public static final int UNREACHABLE = CoinChangeCounting.UNREACHABLE;
+
+	// Cells per block of the wavefront.
+	private static final int BLOCK = 1 << 15;
+
+	// The lastCoin pass splits its range down to this many cells.
+	private static final int GRAIN = 1 << 14;
+
+	private ParallelCoinChanging() {
+	}
+
+	// Same contract as DynamicProgrammingCoinChanging.makeChange, using the common ForkJoinPool,
+	// except that amounts that cannot be made are marked UNREACHABLE.
+	public static void makeChange(int[] coins, int differentCoins, int maxChange, int[] coinsUsed, int[] lastCoin) {
+
+		makeChange(coins, differentCoins, maxChange, coinsUsed, lastCoin, ForkJoinPool.commonPool());
+	}
+
+	// Same contract as DynamicProgrammingCoinChanging.makeChange, running on pool,
+	// except that amounts that cannot be made are marked UNREACHABLE.
+	public static void makeChange(int[] coins, int differentCoins, int maxChange, int[] coinsUsed, int[] lastCoin,
+			ForkJoinPool pool) {
+
+		for (int j = 0; j < differentCoins; j++)
+			if (coins[j] < 1)
+				throw new IllegalArgumentException("Coin of " + coins[j] + " cents");
+
+		coinsUsed[0] = 0;
+		lastCoin[0] = 1;
+		if (differentCoins == 0) {
+			// Nothing but 0 cents can be made.
+			Arrays.fill(coinsUsed, 1, maxChange + 1, UNREACHABLE);
+			Arrays.fill(lastCoin, 1, maxChange + 1, 0);
+			return;
+		}
+
+		// Stage j starts offset[j] steps after stage 0.
+		int[] offset = new int[differentCoins];
+		for (int j = 1; j < differentCoins; j++)
+			offset[j] = offset[j - 1] + (coins[j - 1] + BLOCK - 1) / BLOCK + 1;
+
+		int blocks = (maxChange + BLOCK) / BLOCK; // cells 0..maxChange
+		int steps = blocks + offset[differentCoins - 1];
+		for (int step = 0; step < steps; step++)
+			pool.invoke(new StepTask(coins, coinsUsed, maxChange, offset, step, 0, differentCoins));
+
+		pool.invoke(new LastCoinTask(coins, differentCoins, coinsUsed, lastCoin, 1, maxChange + 1));
+	}
+
+	// Block b of stage j: cells from..to-1 of used_(j-1) become cells of used_j.
+	// Stage 0 starts from a table where only 0 cents can be made.
+	private static void sweep(int[] coins, int j, int[] coinsUsed, int from, int to) {
+
+		if (j == 0)
+			Arrays.fill(coinsUsed, Math.max(from, 1), to, UNREACHABLE);
+
+		int coin = coins[j];
+		for (int cents = Math.max(from, coin); cents < to; cents++) {
+			int previous = coinsUsed[cents - coin];
+			if (previous != UNREACHABLE && previous + 1 < coinsUsed[cents])
+				coinsUsed[cents] = previous + 1;
+		}
+	}
+
+	// One step of the wavefront: stages from..to-1, each on its own block, split in halves.
+	private static final class StepTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] coins;
+		private final int[] coinsUsed;
+		private final int maxChange;
+		private final int[] offset;
+		private final int step;
+		private final int from;
+		private final int to;
+
+		StepTask(int[] coins, int[] coinsUsed, int maxChange, int[] offset, int step, int from, int to) {
+			this.coins = coins;
+			this.coinsUsed = coinsUsed;
+			this.maxChange = maxChange;
+			this.offset = offset;
+			this.step = step;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from > 1) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new StepTask(coins, coinsUsed, maxChange, offset, step, from, mid),
+						new StepTask(coins, coinsUsed, maxChange, offset, step, mid, to));
+				return;
+			}
+
+			int block = step - offset[from];
+			long first = (long) block * BLOCK;
+			if (block < 0 || first > maxChange)
+				return;
+			sweep(coins, from, coinsUsed, (int) first, (int) Math.min(first + BLOCK, (long) maxChange + 1));
+		}
+	}
+
+	// lastCoin for cells from..to-1, from the finished coinsUsed.
+	private static final class LastCoinTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] coins;
+		private final int differentCoins;
+		private final int[] coinsUsed;
+		private final int[] lastCoin;
+		private final int from;
+		private final int to;
+
+		LastCoinTask(int[] coins, int differentCoins, int[] coinsUsed, int[] lastCoin, int from, int to) {
+			this.coins = coins;
+			this.differentCoins = differentCoins;
+			this.coinsUsed = coinsUsed;
+			this.lastCoin = lastCoin;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (to - from > GRAIN) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new LastCoinTask(coins, differentCoins, coinsUsed, lastCoin, from, mid),
+						new LastCoinTask(coins, differentCoins, coinsUsed, lastCoin, mid, to));
+				return;
+			}
+
+			for (int cents = from; cents < to; cents++) {
+				int count = coinsUsed[cents];
+				int coin = 0;
+				if (count != UNREACHABLE) {
+					for (int j = 0; j < differentCoins; j++) {
+						if (coins[j] <= cents && coinsUsed[cents - coins[j]] + 1 == count) {
+							coin = coins[j];
+							break;
+						}
+					}
+				}
+				lastCoin[cents] = coin;
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+
+		// With a 1-cent coin the tables are the ones the sequential algorithm fills.
+		int[] coins = { 1, 5, 10, 21, 25 };
+		int maxChange = 1_000_000;
+		int[] used = new int[maxChange + 1];
+		int[] last = new int[maxChange + 1];
+		int[] expectedUsed = new int[maxChange + 1];
+		int[] expectedLast = new int[maxChange + 1];
+
+		DynamicProgrammingCoinChanging.makeChange(coins, coins.length, maxChange, expectedUsed, expectedLast);
+		makeChange(coins, coins.length, maxChange, used, last);
+		System.out.println(used[63] + " coins for 63 cents, same tables: "
+				+ (Arrays.equals(used, expectedUsed) && Arrays.equals(last, expectedLast))); // 3, true
+
+		// Without one, some amounts cannot be made.
+		int[] noPenny = { 5, 21 };
+		makeChange(noPenny, noPenny.length, 30, used, last);
+		System.out.println((used[13] == UNREACHABLE) + " " + used[26] + " " + last[26]); // true 2 5
+
+		// ParallelCoinChangingBenchmark in the benchmarks module measures the scaling from 1 to N threads.
+	}
+
+}
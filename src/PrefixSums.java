@@ -0,0 +1,78 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = prefix sums =
+ *
+ *  - SumOfTheFirstNIntegers.s adds 1..n; for an arbitrary array we want the sum of any range values[from..to).
+ *  - Adding up the range each time costs O(to - from).
+ *
+ *  - Instead we store prefix[i] = values[0] + ... + values[i-1], with prefix[0] = 0. Then
+ *
+ *      values[from] + ... + values[to-1] = prefix[to] - prefix[from]
+ *
+ *    in O(1), for any range.
+ *  - The prefix array is built with Arrays.parallelPrefix, which computes the running sums on several threads.
+ *
+ *  - The sums wrap around on overflow, like +. The difference of two wrapped prefixes is still right
+ *    whenever the range sum itself fits in a long.
+ *  - The values must not change afterwards; FenwickTree handles updates.
+ *
+ */
+public final class PrefixSums {
+
+	private final long[] prefix;
+
+	// Build the prefix sums of values; the array is copied.
+	public PrefixSums(long[] values) {
+
+		prefix = new long[values.length + 1];
+		System.arraycopy(values, 0, prefix, 1, values.length);
+		Arrays.parallelPrefix(prefix, Long::sum);
+	}
+
+	// Number of values.
+	public int size() {
+		return prefix.length - 1;
+	}
+
+	// values[from] + ... + values[to-1].
+	public long rangeSum(int from, int to) {
+
+		if (from < 0 || from > to || to > size())
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + size());
+		return prefix[to] - prefix[from];
+	}
+
+	// values[0] + ... + values[to-1].
+	public long prefixSum(int to) {
+		return rangeSum(0, to);
+	}
+
+	// Sum of all values.
+	public long total() {
+		return prefix[prefix.length - 1];
+	}
+
+	public static void main(String[] args) {
+
+		long[] values = new long[20_000_000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i % 1000 - 500;
+
+		long start = System.nanoTime();
+		PrefixSums sums = new PrefixSums(values);
+		System.out.println("built in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+		int queries = 10_000_000;
+		long check = 0;
+		start = System.nanoTime();
+		for (int q = 0; q < queries; q++) {
+			int from = (int) ((q * 0x9E3779B97F4A7C15L >>> 40) % values.length);
+			check += sums.rangeSum(from, Math.min(values.length, from + 1000));
+		}
+		System.out.println(queries + " range sums in " + (System.nanoTime() - start) / 1_000_000 + " ms (" + check + ")");
+		System.out.println(sums.rangeSum(0, 1000) + " " + Series.sum(values, 0, 1000));
+	}
+
+}
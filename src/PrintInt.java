@@ -11,6 +11,9 @@
  *  Driver routine:
  *   - A driver routine tests the validity of the first call and then calls the recursive routine.
  *
+ *  - n = -n overflows for Long.MIN_VALUE, and each digit costs a println.
+ *  - RadixFormatter writes the digits of any long into a buffer instead, without recursion.
+ *
  */
 public final class PrintInt {
 	
@@ -19,11 +22,40 @@ public final class PrintInt {
 	
 	// Print n in any base, recursively
 	// Precondition: n >= 0, 2 <= base <= MAX_BASE
+	// The recursion runs on Trampoline: go down to n/base, then print the last digit on the way back.
 	private static void printIntRec(long n, int base) {
-		if(n >= base)
-			printIntRec(n/base,base);
-		System.out.println(DIGIT_TABLE.charAt((int)(n % base)));
-		
+		Trampoline.run("PrintInt.printInt", IN_BASE[base], n);
+	}
+	
+	// The step state of a Trampoline run is a single long, and n alone can take all 63 bits,
+	// so the base cannot travel with it: there is one shared recursion per base instead, created once.
+	private static final Trampoline.LinearRecursion[] IN_BASE = new Trampoline.LinearRecursion[MAX_BASE + 1];
+	
+	static {
+		for(int base = 2; base <= MAX_BASE; base++)
+			IN_BASE[base] = inBase(base);
+	}
+	
+	private static Trampoline.LinearRecursion inBase(int base) {
+		return new Trampoline.LinearRecursion() {
+			@Override
+			public boolean isBase(long n) {
+				return n < base;
+			}
+			@Override
+			public long base(long n) {
+				return combine(n, 0);
+			}
+			@Override
+			public long next(long n) {
+				return n / base;
+			}
+			@Override
+			public long combine(long n, long unused) {
+				System.out.println(DIGIT_TABLE.charAt((int)(n % base)));
+				return 0;
+			}
+		};
 	}
 	
 	// Driver routine
@@ -40,6 +72,27 @@ public final class PrintInt {
 			printIntRec(n, base);
 		}
 	}
+	
+	// The same driver over plain recursion on the thread stack, for comparison.
+	public static void recursivePrintInt(long n, int base) {
+		
+		if(base <= 1 || base > MAX_BASE)
+			System.err.println("Cannot print in base " + base);
+		else {
+			if(n<0) {
+				n = -n;
+				System.out.println("-");
+			}
+			printIntOnStack(n, base);
+		}
+	}
+	
+	// Precondition: n >= 0, 2 <= base <= MAX_BASE
+	private static void printIntOnStack(long n, int base) {
+		if(n >= base)
+			printIntOnStack(n / base, base);
+		System.out.println(DIGIT_TABLE.charAt((int)(n % base)));
+	}
 			
 	
 
@@ -70,13 +70,31 @@ public class PrintNumber {
 	
 	// Print n in base 10, recursively.
 	// Precondition: n>=10
+	// The recursion runs on Trampoline: go down to n/10, then print the last digit on the way back.
 	public static void printDecimal(long n) {		
-		if(n >= 10)
-			printDecimal(n/10);
-		System.out.println((n % 10));
-		
+		Trampoline.run("PrintNumber.printDecimal", DECIMAL, n);
 	}
 	
+	private static final Trampoline.LinearRecursion DECIMAL = new Trampoline.LinearRecursion() {
+		@Override
+		public boolean isBase(long n) {
+			return n < 10;
+		}
+		@Override
+		public long base(long n) {
+			return combine(n, 0);
+		}
+		@Override
+		public long next(long n) {
+			return n / 10;
+		}
+		@Override
+		public long combine(long n, long unused) {
+			System.out.println((n % 10));
+			return 0;
+		}
+	};
+	
 	private static final String DIGIT_TABLE = "0123456789abcdef";
 	
 	// Print n in any base, recursively.
@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * = formatting numbers without printing a digit at a time =
+ *
+ *  - PrintInt.printInt and PrintNumber.printInt print each digit with its own System.out.println:
+ *    one synchronized stream write, and a newline, per character.
+ *  - Here the digits of a long are written into a buffer that the caller supplies, and the caller writes them out all at once.
+ *
+ *  - Recursion gave us the digits in the right order for free. Without it we get the last digit first,
+ *    so we work out the number of digits first, and then fill the buffer from right to left.
+ *  - No objects are created per call: char arrays, direct ByteBuffers and Appendables go through a small per-thread scratch array.
+ *  - The digits are always written by the same byte loops below, so every target gets the same shortcuts.
+ *
+ *  - Long.MIN_VALUE has no positive counterpart, so n = -n as in PrintInt overflows.
+ *    Instead we work with -|n|, which always fits: for v <= 0, v / base rounds toward zero, and the digit is q * base - v.
+ *
+ *  - Two shortcuts:
+ *
+ *    - Base 10 produces two digits per division, with a table of the 100 pairs "00" to "99".
+ *    - In a power-of-two base every digit is a group of bits, so the length follows from the number of leading zeros
+ *      and the digits come from shifts and masks; base 16 takes two digits (one byte) at a time from a pair table.
+ *
+ */
+public final class RadixFormatter {
+
+	private static final String DIGIT_TABLE = "0123456789abcdef";
+	public static final int MIN_BASE = 2;
+	public static final int MAX_BASE = DIGIT_TABLE.length();
+
+	// Longest result: 64 binary digits and a sign.
+	public static final int MAX_LENGTH = 65;
+
+	private static final byte[] DIGITS = new byte[MAX_BASE];
+
+	// DECIMAL_PAIRS[2 * i] and DECIMAL_PAIRS[2 * i + 1] are the two digits of i, for i < 100.
+	private static final byte[] DECIMAL_PAIRS = new byte[200];
+
+	// HEX_PAIRS[2 * i] and HEX_PAIRS[2 * i + 1] are the two hex digits of the byte i.
+	private static final byte[] HEX_PAIRS = new byte[512];
+
+	// NEGATIVE_POWERS_OF_TEN[k] = -10^(k+1), for counting decimal digits without dividing.
+	private static final long[] NEGATIVE_POWERS_OF_TEN = new long[18];
+
+	// Per-thread scratch for char arrays, direct buffers and Appendables, so that no call allocates.
+	private static final ThreadLocal<char[]> SCRATCH = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+	private static final ThreadLocal<byte[]> BYTE_SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_LENGTH]);
+
+	static {
+		for (int i = 0; i < MAX_BASE; i++)
+			DIGITS[i] = (byte) DIGIT_TABLE.charAt(i);
+		for (int i = 0; i < 100; i++) {
+			DECIMAL_PAIRS[2 * i] = DIGITS[i / 10];
+			DECIMAL_PAIRS[2 * i + 1] = DIGITS[i % 10];
+		}
+		for (int i = 0; i < 256; i++) {
+			HEX_PAIRS[2 * i] = DIGITS[i >>> 4];
+			HEX_PAIRS[2 * i + 1] = DIGITS[i & 0xf];
+		}
+		long power = -10;
+		for (int k = 0; k < NEGATIVE_POWERS_OF_TEN.length; k++, power *= 10)
+			NEGATIVE_POWERS_OF_TEN[k] = power;
+	}
+
+	private RadixFormatter() {
+	}
+
+	// Number of characters of n in base, including the sign.
+	public static int length(long n, int base) {
+
+		checkBase(base);
+		return (n < 0 ? 1 : 0) + digitCount(n, base);
+	}
+
+	// Write n in base into dst starting at offset, and return the index after the last character.
+	public static int format(long n, int base, byte[] dst, int offset) {
+
+		int length = length(n, base);
+		if (offset < 0 || offset > dst.length - length)
+			throw new ArrayIndexOutOfBoundsException("Need " + length + " bytes at " + offset + ", have " + dst.length);
+
+		return encode(n, base, length, dst, offset);
+	}
+
+	// Write n in base into dst starting at offset, and return the index after the last character.
+	public static int format(long n, int base, char[] dst, int offset) {
+
+		int length = length(n, base);
+		if (offset < 0 || offset > dst.length - length)
+			throw new ArrayIndexOutOfBoundsException("Need " + length + " chars at " + offset + ", have " + dst.length);
+
+		// The same digit loops as for bytes, then widen each byte to a char.
+		byte[] scratch = BYTE_SCRATCH.get();
+		encode(n, base, length, scratch, 0);
+		for (int i = 0; i < length; i++)
+			dst[offset + i] = (char) scratch[i];
+		return offset + length;
+	}
+
+	// Write n in base at the position of dst and advance it.
+	// Throws BufferOverflowException if there is not enough room; dst is unchanged then.
+	public static void format(long n, int base, ByteBuffer dst) {
+
+		int length = length(n, base);
+		if (dst.remaining() < length)
+			throw new BufferOverflowException();
+
+		if (dst.hasArray()) {
+			int position = dst.position();
+			format(n, base, dst.array(), dst.arrayOffset() + position);
+			dst.position(position + length);
+		} else {
+			// A direct buffer: format into the scratch array and copy it with one bulk put.
+			byte[] scratch = BYTE_SCRATCH.get();
+			encode(n, base, length, scratch, 0);
+			dst.put(scratch, 0, length);
+		}
+	}
+
+	// Append n in base to out.
+	public static void format(long n, int base, Appendable out) throws IOException {
+
+		char[] scratch = SCRATCH.get();
+		int end = format(n, base, scratch, 0);
+
+		if (out instanceof StringBuilder)
+			((StringBuilder) out).append(scratch, 0, end);
+		else if (out instanceof Writer)
+			((Writer) out).write(scratch, 0, end);
+		else
+			for (int i = 0; i < end; i++)
+				out.append(scratch[i]);
+	}
+
+	// n in base, of the given length, written into dst[offset .. offset + length - 1]; return the end.
+	private static int encode(long n, int base, int length, byte[] dst, int offset) {
+
+		int end = offset + length;
+		writeDigits(n, base, dst, end, length - (n < 0 ? 1 : 0));
+		if (n < 0)
+			dst[offset] = '-';
+		return end;
+	}
+
+	// Digits of n without sign, written into dst[end - digits .. end - 1].
+	private static void writeDigits(long n, int base, byte[] dst, int end, int digits) {
+
+		int i = end;
+
+		if (base == 10) {
+			long v = n < 0 ? n : -n;
+			while (v <= -100) {
+				long q = v / 100;
+				int r = (int) (q * 100 - v);
+				dst[--i] = DECIMAL_PAIRS[2 * r + 1];
+				dst[--i] = DECIMAL_PAIRS[2 * r];
+				v = q;
+			}
+			int r = (int) -v;
+			dst[--i] = DECIMAL_PAIRS[2 * r + 1];
+			if (r >= 10)
+				dst[--i] = DECIMAL_PAIRS[2 * r];
+			return;
+		}
+
+		if ((base & (base - 1)) == 0) {
+			long magnitude = n < 0 ? -n : n; // Long.MIN_VALUE stays 2^63 read unsigned
+			if (base == 16) {
+				for (; digits >= 2; digits -= 2, magnitude >>>= 8) {
+					int b = (int) (magnitude & 0xff);
+					dst[--i] = HEX_PAIRS[2 * b + 1];
+					dst[--i] = HEX_PAIRS[2 * b];
+				}
+				if (digits == 1)
+					dst[--i] = DIGITS[(int) (magnitude & 0xf)];
+				return;
+			}
+			int shift = Integer.numberOfTrailingZeros(base);
+			for (; digits > 0; digits--, magnitude >>>= shift)
+				dst[--i] = DIGITS[(int) (magnitude & (base - 1))];
+			return;
+		}
+
+		long v = n < 0 ? n : -n;
+		for (; digits > 0; digits--) {
+			long q = v / base;
+			dst[--i] = DIGITS[(int) (q * base - v)];
+			v = q;
+		}
+	}
+
+	// Number of digits of |n| in base, at least 1.
+	private static int digitCount(long n, int base) {
+
+		if ((base & (base - 1)) == 0) {
+			long magnitude = n < 0 ? -n : n;
+			int bits = 64 - Long.numberOfLeadingZeros(magnitude);
+			int shift = Integer.numberOfTrailingZeros(base);
+			return Math.max(1, (bits + shift - 1) / shift);
+		}
+
+		long v = n < 0 ? n : -n;
+		if (base == 10) {
+			int count = 1;
+			while (count <= NEGATIVE_POWERS_OF_TEN.length && v <= NEGATIVE_POWERS_OF_TEN[count - 1])
+				count++;
+			return count;
+		}
+
+		int count = 1;
+		for (; v <= -base; v /= base)
+			count++;
+		return count;
+	}
+
+	private static void checkBase(int base) {
+
+		if (base < MIN_BASE || base > MAX_BASE)
+			throw new IllegalArgumentException("Cannot format in base " + base);
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		StringBuilder out = new StringBuilder();
+		long[] samples = { 223, 40, -40, 0, Long.MAX_VALUE, Long.MIN_VALUE };
+		for (int base : new int[] { 2, 3, 5, 10, 16 }) {
+			for (long n : samples) {
+				format(n, base, out);
+				out.append(' ');
+			}
+			out.append('\n');
+		}
+		System.out.print(out);
+
+		// Format ten million numbers into one buffer, against Long.toString.
+		int count = 10_000_000;
+		byte[] buffer = new byte[count * 21];
+		long start = System.nanoTime();
+		int end = 0;
+		for (int i = 0; i < count; i++) {
+			end = format(i * 0x9E3779B97F4A7C15L, 10, buffer, end);
+			buffer[end++] = '\n';
+		}
+		long formatter = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		long chars = 0;
+		for (int i = 0; i < count; i++)
+			chars += Long.toString(i * 0x9E3779B97F4A7C15L).length() + 1;
+		long toString = System.nanoTime() - start;
+
+		System.out.println(end + " bytes in " + formatter / 1_000_000 + " ms, Long.toString: " + chars + " chars in "
+				+ toString / 1_000_000 + " ms");
+	}
+
+}
@@ -0,0 +1,391 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ *
+ * = reading numbers back =
+ *
+ *  - The inverse of PrintInt.printInt: turn the digits of a number in base 2 to 16 back into a long.
+ *  - PrintNumber.main reads its input with java.util.Scanner, which matches every token against regular expressions.
+ *    Here we read the bytes directly from a byte[], a ByteBuffer or a memory-mapped file.
+ *
+ *  - Digit by digit, value = value * base + digit, as in Horner's rule.
+ *
+ *  - In base 10 and 16 we take 8 digits at a time (SWAR, SIMD within a register):
+ *
+ *    - The 8 bytes are loaded as one little-endian long, so the first digit is the lowest byte.
+ *    - All 8 are checked at once: for bytes below 0x80, adding 0x80 - lo sets the high bit of each byte >= lo,
+ *      and adding 0x7f - hi sets it for each byte > hi, without carries between the bytes.
+ *      So (x + (0x80 - lo)) & ~(x + (0x7f - hi)) has the high bit set exactly in the bytes in lo..hi.
+ *    - The digit values are then combined in pairs, quads and octets with three multiplications (base 10)
+ *      or three shifts (base 16).
+ *
+ *  - Overflow is checked like Long.parseLong does: the value is built up as a negative number,
+ *    which has room for Long.MIN_VALUE, and each step checks the limit before multiplying or subtracting.
+ *
+ *  - A Tokenizer reads a sequence of numbers separated by whitespace or commas, without allocating,
+ *    and a mapped file larger than its window is remapped as the reading proceeds.
+ *
+ */
+public final class RadixParser {
+
+	public static final int MIN_BASE = 2;
+	public static final int MAX_BASE = 16;
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class,
+			ByteOrder.LITTLE_ENDIAN);
+
+	// DIGIT_VALUE[b] is the value of the digit with byte b, or MAX_BASE if b is not a digit.
+	private static final byte[] DIGIT_VALUE = new byte[256];
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			if (b >= '0' && b <= '9')
+				DIGIT_VALUE[b] = (byte) (b - '0');
+			else if (b >= 'a' && b <= 'f')
+				DIGIT_VALUE[b] = (byte) (b - 'a' + 10);
+			else if (b >= 'A' && b <= 'F')
+				DIGIT_VALUE[b] = (byte) (b - 'A' + 10);
+			else
+				DIGIT_VALUE[b] = MAX_BASE;
+		}
+	}
+
+	private RadixParser() {
+	}
+
+	// Parse src[from..to) as a long in base, with an optional sign.
+	// Throws NumberFormatException for anything else or a value outside the range of long.
+	public static long parse(byte[] src, int from, int to, int base) {
+
+		checkBase(base);
+		if (from < 0 || from > to || to > src.length)
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + src.length);
+
+		int i = from;
+		boolean negative = false;
+		if (i < to && (src[i] == '-' || src[i] == '+'))
+			negative = src[i++] == '-';
+		if (i == to)
+			throw invalid(src, from, to);
+
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0; // negative of the digits read so far
+
+		if (base == 10 || base == 16) {
+			long factor = base == 10 ? 100_000_000L : 1L << 32;
+			long factorLimit = limit / factor;
+			for (; to - i >= 8; i += 8) {
+				long word = (long) LONG_LE.get(src, i);
+				if (!allDigits(word, base))
+					throw invalid(src, from, to);
+				long octet = base == 10 ? decimal8(word) : hex8(word);
+				if (value < factorLimit || value * factor < limit + octet)
+					throw overflow(src, from, to);
+				value = value * factor - octet;
+			}
+		}
+
+		long multLimit = limit / base;
+		for (; i < to; i++) {
+			int digit = DIGIT_VALUE[src[i] & 0xff];
+			if (digit >= base)
+				throw invalid(src, from, to);
+			if (value < multLimit || value * base < limit + digit)
+				throw overflow(src, from, to);
+			value = value * base - digit;
+		}
+		return negative ? value : -value;
+	}
+
+	// Parse src[from..to) as a long in base; the position of src is not changed.
+	public static long parse(ByteBuffer src, int from, int to, int base) {
+
+		checkBase(base);
+		if (from < 0 || from > to || to > src.limit())
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + src.limit());
+
+		int i = from;
+		boolean negative = false;
+		if (i < to && (src.get(i) == '-' || src.get(i) == '+'))
+			negative = src.get(i++) == '-';
+		if (i == to)
+			throw invalid(src, from, to);
+
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+
+		if (base == 10 || base == 16) {
+			boolean swap = src.order() == ByteOrder.BIG_ENDIAN;
+			long factor = base == 10 ? 100_000_000L : 1L << 32;
+			long factorLimit = limit / factor;
+			for (; to - i >= 8; i += 8) {
+				long word = src.getLong(i);
+				if (swap)
+					word = Long.reverseBytes(word);
+				if (!allDigits(word, base))
+					throw invalid(src, from, to);
+				long octet = base == 10 ? decimal8(word) : hex8(word);
+				if (value < factorLimit || value * factor < limit + octet)
+					throw overflow(src, from, to);
+				value = value * factor - octet;
+			}
+		}
+
+		long multLimit = limit / base;
+		for (; i < to; i++) {
+			int digit = DIGIT_VALUE[src.get(i) & 0xff];
+			if (digit >= base)
+				throw invalid(src, from, to);
+			if (value < multLimit || value * base < limit + digit)
+				throw overflow(src, from, to);
+			value = value * base - digit;
+		}
+		return negative ? value : -value;
+	}
+
+	// High bit of each byte of x set if the byte is in lo..hi; x must have no byte >= 0x80.
+	private static long inRange(long x, int lo, int hi) {
+		return (x + ONES * (0x80 - lo)) & ~(x + ONES * (0x7f - hi)) & HIGH_BITS;
+	}
+
+	// True if all 8 bytes of word are digits in base 10 or 16.
+	private static boolean allDigits(long word, int base) {
+
+		if ((word & HIGH_BITS) != 0)
+			return false;
+		long digits = inRange(word, '0', '9');
+		if (base == 16)
+			digits |= inRange(word, 'a', 'f') | inRange(word, 'A', 'F');
+		return digits == HIGH_BITS;
+	}
+
+	// Value of 8 decimal digits, the first in the lowest byte.
+	private static long decimal8(long word) {
+
+		long v = word - ONES * '0';
+		v = (v * 10 + (v >>> 8)) & 0x00FF00FF00FF00FFL; // pairs
+		v = (v * 100 + (v >>> 16)) & 0x0000FFFF0000FFFFL; // quads
+		return (v * 10000 + (v >>> 32)) & 0xFFFFFFFFL;
+	}
+
+	// Value of 8 hex digits, the first in the lowest byte.
+	private static long hex8(long word) {
+
+		// Letters have bit 6 set: 'a' & 0xf = 1 and 'A' & 0xf = 1, so add 9 to them.
+		long v = (word & ONES * 0x0f) + 9 * ((word >>> 6) & ONES);
+		v = ((v << 4) | (v >>> 8)) & 0x00FF00FF00FF00FFL;
+		v = ((v << 8) | (v >>> 16)) & 0x0000FFFF0000FFFFL;
+		return ((v << 16) | (v >>> 32)) & 0xFFFFFFFFL;
+	}
+
+	// Separators between tokens: whitespace, control characters and commas.
+	private static boolean isSeparator(byte b) {
+		return (b & 0xff) <= ' ' || b == ',';
+	}
+
+	private static void checkBase(int base) {
+
+		if (base < MIN_BASE || base > MAX_BASE)
+			throw new IllegalArgumentException("Cannot parse base " + base);
+	}
+
+	private static NumberFormatException invalid(byte[] src, int from, int to) {
+		return new NumberFormatException("Not a number: \"" + new String(src, from, to - from, ascii()) + "\"");
+	}
+
+	private static NumberFormatException invalid(ByteBuffer src, int from, int to) {
+		return new NumberFormatException("Not a number: \"" + text(src, from, to) + "\"");
+	}
+
+	private static NumberFormatException overflow(byte[] src, int from, int to) {
+		return new NumberFormatException("Out of range: \"" + new String(src, from, to - from, ascii()) + "\"");
+	}
+
+	private static NumberFormatException overflow(ByteBuffer src, int from, int to) {
+		return new NumberFormatException("Out of range: \"" + text(src, from, to) + "\"");
+	}
+
+	private static String text(ByteBuffer src, int from, int to) {
+
+		byte[] bytes = new byte[to - from];
+		for (int i = from; i < to; i++)
+			bytes[i - from] = src.get(i);
+		return new String(bytes, ascii());
+	}
+
+	private static Charset ascii() {
+		return StandardCharsets.ISO_8859_1;
+	}
+
+	/**
+	 * Reads numbers separated by whitespace or commas from a ByteBuffer or a mapped file.
+	 * Not thread-safe.
+	 */
+	public static final class Tokenizer implements Closeable {
+
+		// Bytes of a file mapped at a time; no number may be longer.
+		private static final int WINDOW = 1 << 26;
+
+		private final int base;
+		private final FileChannel channel; // null when reading a buffer
+		private final long fileSize;
+
+		private ByteBuffer buffer;
+		private long bufferStart; // file offset of buffer index 0
+		private int position;
+
+		// Read the bytes between the position and the limit of buffer.
+		public Tokenizer(ByteBuffer buffer, int base) {
+
+			checkBase(base);
+			this.base = base;
+			this.channel = null;
+			this.fileSize = buffer.limit();
+			this.buffer = buffer;
+			this.position = buffer.position();
+		}
+
+		private Tokenizer(FileChannel channel, int base) throws IOException {
+
+			this.base = base;
+			this.channel = channel;
+			this.fileSize = channel.size();
+			map(0);
+		}
+
+		// Map the file for reading; close the tokenizer when done.
+		public static Tokenizer open(Path path, int base) throws IOException {
+
+			checkBase(base);
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+			try {
+				return new Tokenizer(channel, base);
+			} catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		// True if another number follows.
+		public boolean hasNext() throws IOException {
+			return skipSeparators();
+		}
+
+		// Read the next number.
+		// Throws NoSuchElementException at the end and NumberFormatException for a token that is not a number.
+		public long nextLong() throws IOException {
+
+			if (!skipSeparators())
+				throw new NoSuchElementException();
+
+			int end = tokenEnd();
+			if (end == buffer.limit() && channel != null && bufferStart + end < fileSize) {
+				// The token runs past the window: map again from its first byte.
+				map(bufferStart + position);
+				end = tokenEnd();
+				if (end == buffer.limit() && bufferStart + end < fileSize)
+					throw new NumberFormatException("Token longer than " + WINDOW + " bytes at " + bufferStart);
+			}
+
+			long value = parse(buffer, position, end, base);
+			position = end;
+			return value;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (channel != null)
+				channel.close();
+		}
+
+		private int tokenEnd() {
+
+			int end = position;
+			int limit = buffer.limit();
+			while (end < limit && !isSeparator(buffer.get(end)))
+				end++;
+			return end;
+		}
+
+		// Move past separators, mapping the next window if needed; false at the end of the input.
+		private boolean skipSeparators() throws IOException {
+
+			while (true) {
+				int limit = buffer.limit();
+				while (position < limit && isSeparator(buffer.get(position)))
+					position++;
+				if (position < limit)
+					return true;
+				if (channel == null || bufferStart + limit >= fileSize)
+					return false;
+				map(bufferStart + limit);
+			}
+		}
+
+		private void map(long offset) throws IOException {
+
+			long size = Math.min(WINDOW, fileSize - offset);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+			bufferStart = offset;
+			position = 0;
+		}
+	}
+
+	// Compare the Tokenizer with Scanner on a file of numbers written by BulkNumberEncoder.
+	public static void main(String[] args) throws IOException {
+
+		byte[] text = "1369 -9223372036854775808 7fffffffffffffff".getBytes(ascii());
+		System.out.println(parse(text, 0, 4, 10) + " " + parse(text, 5, 25, 10) + " " + parse(text, 26, 42, 16));
+
+		// Values written by BulkNumberEncoder read back by the Tokenizer, from a mapped file, and by Scanner.
+		int count = 100_000;
+		long[] values = new long[count];
+		for (int i = 0; i < count; i++)
+			values[i] = (i * 0x9E3779B97F4A7C15L) >> (i & 63);
+
+		Path file = Files.createTempFile("numbers", ".txt");
+		try {
+			try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				new BulkNumberEncoder(16).write(values, out);
+			}
+
+			boolean same = true;
+			int i = 0;
+			try (Tokenizer tokens = Tokenizer.open(file, 16)) {
+				while (tokens.hasNext())
+					same &= i < count && tokens.nextLong() == values[i++];
+			}
+			same &= i == count;
+
+			i = 0;
+			try (Scanner scanner = new Scanner(Channels.newInputStream(FileChannel.open(file)), "US-ASCII")) {
+				scanner.useRadix(16);
+				while (scanner.hasNextLong())
+					same &= i < count && scanner.nextLong() == values[i++];
+			}
+			System.out.println("same values as written and as read by Scanner: " + (same && i == count)); // true
+		} finally {
+			Files.delete(file);
+		}
+
+		// RadixParserBenchmark in the benchmarks module compares the Tokenizer with Scanner.
+	}
+
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event for one top-level call of an instrumented recursive routine.
+ *
+ * - Recorded only when instrumentation is enabled (see RecursionMetrics) and a recording has the event turned on,
+ *   for example with -XX:StartFlightRecording.
+ * - The event's own duration covers the call; elapsed repeats it as a plain field for tools that only read fields.
+ */
+@Name("recursion.Invocation")
+@Label("Recursive Invocation")
+@Category("Recursion")
+@Description("One top-level call of an instrumented recursive routine")
+final class RecursionEvent extends jdk.jfr.Event {
+
+	@Label("Routine")
+	String routine;
+
+	@Label("Input Size")
+	long inputSize;
+
+	@Label("Max Depth")
+	int maxDepth;
+
+	@Label("Sub-calls")
+	@Description("Calls made below the top-level call")
+	long subCalls;
+
+	@Label("Elapsed")
+	@Timespan(Timespan.NANOSECONDS)
+	long elapsed;
+
+}
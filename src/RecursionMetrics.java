@@ -0,0 +1,198 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * = measuring recursive routines =
+ *
+ *  - One request can make millions of recursive calls (FibonacciNumber.fib, CoinChanging.makeChange),
+ *    and in production we want to see which routines do, how deep they go, and how long they take.
+ *
+ *  - Instrumented routines use the driver routine idea from PrintInt:
+ *
+ *    - The hidden recursive routine stays as it was. Next to it is an instrumented copy
+ *      that takes a probe and the depth, and reports each call to the probe.
+ *    - The public driver checks ENABLED once and calls one copy or the other.
+ *      When it picks the instrumented one it starts a RecursionProbe and passes that.
+ *    - Routines that run on Trampoline pass their name to Trampoline.run, whose step loop has the same two copies.
+ *
+ *  - ENABLED is a static final read from the system property recursion.metrics at startup (-Drecursion.metrics=true).
+ *    The JIT treats it as a constant, so with instrumentation off the driver's check disappears from the compiled code,
+ *    and the recursion that runs is the original one.
+ *
+ *  - For each routine the registry keeps, without locks:
+ *
+ *    - calls, sub-calls and the largest depth, in LongAdders and a LongAccumulator;
+ *    - a latency histogram in the style of HdrHistogram: one bucket per power of two, split into 4 sub-buckets,
+ *      so every recorded time is known to within 25% in a fixed array of counters.
+ *
+ *  - Each top-level call is also a RecursionEvent for Flight Recorder.
+ *  - dump() prints the counters and percentiles of every routine on demand.
+ *
+ */
+public final class RecursionMetrics {
+
+	public static final boolean ENABLED = Boolean.getBoolean("recursion.metrics");
+
+	// Sub-buckets per power of two, as a number of bits.
+	private static final int SUB_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+	private static final ConcurrentHashMap<String, Routine> ROUTINES = new ConcurrentHashMap<>();
+
+	private RecursionMetrics() {
+	}
+
+	// Start measuring a top-level call of routine. Only call this when ENABLED.
+	public static RecursionProbe begin(String routine, long inputSize) {
+		return new RecursionProbe(routine(routine), inputSize);
+	}
+
+	// The counters of routine, created on first use.
+	public static Routine routine(String name) {
+		return ROUTINES.computeIfAbsent(name, Routine::new);
+	}
+
+	// The counters and latency percentiles of every routine, one line each.
+	public static String dump() {
+
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Routine> e : new TreeMap<>(ROUTINES).entrySet())
+			sb.append(e.getValue()).append('\n');
+		return sb.toString();
+	}
+
+	public static void reset() {
+		for (Routine routine : ROUTINES.values())
+			routine.reset();
+	}
+
+	// Bucket of a value: the value itself below SUB_BUCKETS, then SUB_BUCKETS buckets per power of two.
+	static int bucketOf(long value) {
+
+		if (value < SUB_BUCKETS)
+			return (int) Math.max(0, value);
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	// Smallest value in bucket.
+	static long bucketStart(int bucket) {
+
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+	}
+
+	/**
+	 * Counters of one routine. All updates are lock-free.
+	 */
+	public static final class Routine {
+
+		private final String name;
+		private final LongAdder invocations = new LongAdder();
+		private final LongAdder subCalls = new LongAdder();
+		private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAdder[] latency = new LongAdder[BUCKETS];
+
+		Routine(String name) {
+
+			this.name = name;
+			for (int i = 0; i < BUCKETS; i++)
+				latency[i] = new LongAdder();
+		}
+
+		public String name() {
+			return name;
+		}
+
+		void record(long nanos, long calls, int depth) {
+
+			invocations.increment();
+			subCalls.add(calls);
+			maxDepth.accumulate(depth);
+			totalNanos.add(nanos);
+			latency[bucketOf(nanos)].increment();
+		}
+
+		public long invocations() {
+			return invocations.sum();
+		}
+
+		public long subCalls() {
+			return subCalls.sum();
+		}
+
+		public long maxDepth() {
+			return maxDepth.get();
+		}
+
+		// Lower bound of the bucket holding the given fraction of the recorded times, in nanoseconds.
+		public long percentile(double fraction) {
+
+			long[] counts = new long[BUCKETS];
+			long total = 0;
+			for (int i = 0; i < BUCKETS; i++)
+				total += counts[i] = latency[i].sum();
+			if (total == 0)
+				return 0;
+
+			long rank = (long) Math.ceil(fraction * total);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= Math.max(1, rank))
+					return bucketStart(i);
+			}
+			return bucketStart(BUCKETS - 1);
+		}
+
+		void reset() {
+
+			invocations.reset();
+			subCalls.reset();
+			maxDepth.reset();
+			totalNanos.reset();
+			for (LongAdder bucket : latency)
+				bucket.reset();
+		}
+
+		@Override
+		public String toString() {
+
+			long n = invocations();
+			return name + ": " + n + " calls, " + subCalls() + " sub-calls, max depth " + maxDepth() + ", mean "
+					+ (n == 0 ? 0 : totalNanos.sum() / n) + " ns, p50 " + percentile(0.5) + " ns, p99 "
+					+ percentile(0.99) + " ns";
+		}
+	}
+
+	// Run with -Drecursion.metrics=true (and -XX:StartFlightRecording for the events).
+	public static void main(String[] args) {
+
+		if (!ENABLED)
+			System.out.println("Instrumentation is off; run with -Drecursion.metrics=true");
+
+		int[] coins = { 1, 5, 10, 25 };
+		Integer[] sorted = new Integer[1000];
+		for (int i = 0; i < sorted.length; i++)
+			sorted[i] = 2 * i;
+		for (int i = 0; i < 200; i++) {
+			FibonacciNumber.fib(i % 25);
+			CoinChanging.makeChange(coins, i % 15 + 1);
+			Factorial.factorial(i % 21);
+			SumOfTheFirstNIntegers.s(i * 1000);
+			BinarySearch.binarySearch(sorted, i * 7);
+		}
+		System.out.print(dump());
+	}
+
+}
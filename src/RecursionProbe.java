@@ -0,0 +1,77 @@
+/**
+ * Tracks one top-level call of an instrumented routine: calls, deepest level reached and elapsed time.
+ *
+ * - Created by RecursionMetrics.begin only when instrumentation is enabled, and used by one thread.
+ * - The instrumented copy of a recursive routine, or Trampoline's step loop, calls enter(depth) once per call;
+ *   end() reports the totals.
+ * - A detached probe only counts, for callers that want the numbers themselves; end() reports nothing.
+ */
+public final class RecursionProbe {
+
+	private final RecursionMetrics.Routine routine;
+	private final long inputSize;
+	private final RecursionEvent event;
+	private final long start;
+	private long calls;
+	private int maxDepth;
+
+	RecursionProbe(RecursionMetrics.Routine routine, long inputSize) {
+
+		this.routine = routine;
+		this.inputSize = inputSize;
+		RecursionEvent e = routine == null ? null : new RecursionEvent();
+		if (e != null && e.isEnabled()) {
+			e.begin();
+			event = e;
+		} else {
+			event = null;
+		}
+		start = System.nanoTime();
+	}
+
+	// A probe that is not reported to the registry or to Flight Recorder, whether instrumentation is enabled or not.
+	public static RecursionProbe detached() {
+		return new RecursionProbe(null, 0);
+	}
+
+	// Calls seen so far, the top-level call included.
+	public long calls() {
+		return calls;
+	}
+
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	// One call at depth (the top-level call is depth 1).
+	public void enter(int depth) {
+
+		calls++;
+		if (depth > maxDepth)
+			maxDepth = depth;
+	}
+
+	// Record the call in the registry and in Flight Recorder.
+	public void end() {
+
+		if (routine == null)
+			return;
+
+		long elapsed = System.nanoTime() - start;
+		long subCalls = Math.max(0, calls - 1);
+		routine.record(elapsed, subCalls, maxDepth);
+
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.routine = routine.name();
+				event.inputSize = inputSize;
+				event.maxDepth = maxDepth;
+				event.subCalls = subCalls;
+				event.elapsed = elapsed;
+				event.commit();
+			}
+		}
+	}
+
+}
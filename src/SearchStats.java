@@ -0,0 +1,68 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts searches and probes (array reads) per search strategy.
+ *
+ * - The counters are LongAdders, so one SearchStats can be shared by many threads.
+ * - Each search adds its probe count once, at the end, so counting costs nothing inside the search loop.
+ */
+public final class SearchStats {
+
+	private final LongAdder[] searches;
+	private final LongAdder[] probes;
+
+	public SearchStats() {
+
+		int n = AdaptiveSearch.Strategy.values().length;
+		searches = new LongAdder[n];
+		probes = new LongAdder[n];
+		for (int i = 0; i < n; i++) {
+			searches[i] = new LongAdder();
+			probes[i] = new LongAdder();
+		}
+	}
+
+	// Record one search that read probeCount elements.
+	void record(AdaptiveSearch.Strategy strategy, int probeCount) {
+
+		searches[strategy.ordinal()].increment();
+		probes[strategy.ordinal()].add(probeCount);
+	}
+
+	public long searches(AdaptiveSearch.Strategy strategy) {
+		return searches[strategy.ordinal()].sum();
+	}
+
+	public long probes(AdaptiveSearch.Strategy strategy) {
+		return probes[strategy.ordinal()].sum();
+	}
+
+	// Average number of probes per search, or 0 if there were no searches.
+	public double averageProbes(AdaptiveSearch.Strategy strategy) {
+
+		long n = searches(strategy);
+		return n == 0 ? 0 : (double) probes(strategy) / n;
+	}
+
+	public void reset() {
+
+		for (int i = 0; i < searches.length; i++) {
+			searches[i].reset();
+			probes[i].reset();
+		}
+	}
+
+	@Override
+	public String toString() {
+
+		StringBuilder sb = new StringBuilder();
+		for (AdaptiveSearch.Strategy strategy : AdaptiveSearch.Strategy.values()) {
+			if (sb.length() > 0)
+				sb.append(", ");
+			sb.append(strategy).append(": ").append(searches(strategy)).append(" searches, ")
+					.append(String.format("%.2f", averageProbes(strategy))).append(" probes/search");
+		}
+		return sb.toString();
+	}
+
+}
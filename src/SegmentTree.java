@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = segment tree for range minimum and maximum =
+ *
+ *  - Minimum and maximum have no inverse, so they cannot be read off prefixes the way sums are.
+ *  - A segment tree keeps the answer for a hierarchy of ranges: node i covers the ranges of its children 2i and 2i+1.
+ *
+ *  - The usual version recurses from the root down into the children that overlap the query.
+ *    This one works bottom-up without recursion, in one flat array of 2n nodes:
+ *
+ *    - The values are the leaves n..2n-1, and node i < n combines nodes 2i and 2i+1 (node 0 is unused).
+ *    - A query for [from, to) starts at the two leaves and climbs:
+ *      when the left end is a right child, its node is entirely inside the range, so we take it and step right;
+ *      likewise for the right end. Then both ends move to their parents.
+ *    - An update changes its leaf and recomputes the log n nodes above it.
+ *
+ *  - This works for any n, not only powers of two; some nodes then cover values that are not adjacent in the array,
+ *    but a query never uses those.
+ *  - The minimum and the maximum are kept in two arrays, each walked from the leaves up.
+ *
+ *  - The minimum of an empty range is Long.MAX_VALUE, its maximum Long.MIN_VALUE. Not thread-safe.
+ *
+ */
+public final class SegmentTree {
+
+	private final int n;
+	private final long[] min;
+	private final long[] max;
+
+	// A tree holding values, built in O(n); the array is copied.
+	public SegmentTree(long[] values) {
+
+		n = values.length;
+		min = new long[2 * n];
+		max = new long[2 * n];
+		System.arraycopy(values, 0, min, n, n);
+		System.arraycopy(values, 0, max, n, n);
+		for (int i = n - 1; i > 0; i--) {
+			min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+			max[i] = Math.max(max[2 * i], max[2 * i + 1]);
+		}
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public long get(int index) {
+
+		checkIndex(index);
+		return min[n + index];
+	}
+
+	// values[index] = value.
+	public void set(int index, long value) {
+
+		checkIndex(index);
+		int i = n + index;
+		min[i] = value;
+		max[i] = value;
+		for (i >>>= 1; i > 0; i >>>= 1) {
+			min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+			max[i] = Math.max(max[2 * i], max[2 * i + 1]);
+		}
+	}
+
+	// Minimum of values[from..to).
+	public long min(int from, int to) {
+
+		checkRange(from, to);
+		long result = Long.MAX_VALUE;
+		for (int l = from + n, r = to + n; l < r; l >>>= 1, r >>>= 1) {
+			if ((l & 1) != 0)
+				result = Math.min(result, min[l++]);
+			if ((r & 1) != 0)
+				result = Math.min(result, min[--r]);
+		}
+		return result;
+	}
+
+	// Maximum of values[from..to).
+	public long max(int from, int to) {
+
+		checkRange(from, to);
+		long result = Long.MIN_VALUE;
+		for (int l = from + n, r = to + n; l < r; l >>>= 1, r >>>= 1) {
+			if ((l & 1) != 0)
+				result = Math.max(result, max[l++]);
+			if ((r & 1) != 0)
+				result = Math.max(result, max[--r]);
+		}
+		return result;
+	}
+
+	private void checkIndex(int index) {
+
+		if (index < 0 || index >= n)
+			throw new ArrayIndexOutOfBoundsException("Index " + index + " of " + n);
+	}
+
+	private void checkRange(int from, int to) {
+
+		if (from < 0 || from > to || to > n)
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + n);
+	}
+
+	public static void main(String[] args) {
+
+		long[] values = { 3, 1, 4, 1, 5, 9, 2, 6, 5 };
+		SegmentTree tree = new SegmentTree(values);
+		System.out.println(tree.min(2, 7) + " " + tree.max(2, 7)); // 1 9
+		tree.set(5, -7);
+		System.out.println(tree.min(2, 7) + " " + tree.max(2, 7) + " " + Arrays.toString(values)); // -7 5, values unchanged
+
+		int n = 10_000_000;
+		long[] big = new long[n];
+		for (int i = 0; i < n; i++)
+			big[i] = i * 0x9E3779B97F4A7C15L;
+		SegmentTree large = new SegmentTree(big);
+
+		long start = System.nanoTime();
+		long check = 0;
+		for (int q = 0; q < n; q++) {
+			int i = (int) ((q * 0x9E3779B97F4A7C15L >>> 40) % n);
+			large.set(i, q);
+			check += large.min(i / 2, i + 1) ^ large.max(i / 2, i + 1);
+		}
+		System.out.println(n + " updates and range queries in " + (System.nanoTime() - start) / 1_000_000 + " ms ("
+				+ check + ")");
+	}
+
+}
@@ -0,0 +1,395 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * = sums in closed form =
+ *
+ *  - SumOfTheFirstNIntegers.s(n) makes n nested calls, so it overflows the stack for n around 10^4,
+ *    and for larger n its long result would silently wrap around.
+ *  - The closed forms take O(1) arithmetic operations:
+ *
+ *      1 + 2 + ... + n         = n(n+1)/2
+ *      1^2 + 2^2 + ... + n^2   = n(n+1)(2n+1)/6
+ *      1^3 + 2^3 + ... + n^3   = (n(n+1)/2)^2
+ *
+ *  - The divisions are done on the factors before multiplying (one of n and n+1 is even,
+ *    one of n, n+1 and 2n+1 is divisible by 3), so the products only overflow when the result itself does.
+ *  - The long versions use Math.multiplyExact and throw ArithmeticException on overflow;
+ *    the big versions return the exact BigInteger.
+ *
+ *
+ * = Faulhaber's formula =
+ *
+ *  - For any power p,
+ *
+ *      1^p + 2^p + ... + n^p = 1/(p+1) * sum over j = 0..p of C(p+1, j) * B(j) * n^(p+1-j)
+ *
+ *    where B(j) are the Bernoulli numbers, with B(1) = +1/2.
+ *  - The Bernoulli numbers are rationals, computed once from the recurrence
+ *    sum over k = 0..m of C(m+1, k) B(k) = 0 (with B(1) = -1/2 there) and kept in a table that only grows.
+ *
+ *
+ * = ranges =
+ *
+ *  - Arithmetic: a + (a+d) + ... + (a+(k-1)d) = k*a + d*k(k-1)/2.
+ *  - Geometric:  a + a*r + ... + a*r^(k-1)    = a(r^k - 1)/(r - 1), or k*a for r = 1.
+ *
+ *
+ * = sums of arrays =
+ *
+ *  - sum(values) adds with four independent accumulators, so the additions do not wait for each other.
+ *    (The Vector API is not available on the Java version this project targets; the JIT vectorizes this loop on its own.)
+ *  - parallelSum splits the array in halves on a ForkJoinPool and adds the two partial sums.
+ *  - Like +, these wrap around on overflow.
+ *
+ */
+public final class Series {
+
+	// Below this many elements parallelSum adds sequentially.
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+	// bernoulli[0][m] / bernoulli[1][m] = B(m), with B(1) = -1/2. Published whole, never modified.
+	private static volatile BigInteger[][] bernoulli = { { BigInteger.ONE }, { BigInteger.ONE } };
+
+	private Series() {
+	}
+
+	// 1 + 2 + ... + n. Throws ArithmeticException if the result does not fit in a long.
+	public static long sumOfIntegers(long n) {
+
+		check(n);
+		long next = Math.addExact(n, 1);
+		return n % 2 == 0 ? Math.multiplyExact(n / 2, next) : Math.multiplyExact(n, next / 2);
+	}
+
+	// 1^2 + 2^2 + ... + n^2. Throws ArithmeticException if the result does not fit in a long.
+	public static long sumOfSquares(long n) {
+
+		check(n);
+		long a = n;
+		long b = Math.addExact(n, 1);
+		long c = Math.addExact(Math.addExact(n, n), 1);
+
+		if (a % 2 == 0)
+			a /= 2;
+		else
+			b /= 2;
+
+		if (a % 3 == 0)
+			a /= 3;
+		else if (b % 3 == 0)
+			b /= 3;
+		else
+			c /= 3;
+
+		return Math.multiplyExact(Math.multiplyExact(a, b), c);
+	}
+
+	// 1^3 + 2^3 + ... + n^3. Throws ArithmeticException if the result does not fit in a long.
+	public static long sumOfCubes(long n) {
+
+		long s = sumOfIntegers(n);
+		return Math.multiplyExact(s, s);
+	}
+
+	// 1 + 2 + ... + n, exactly.
+	public static BigInteger bigSumOfIntegers(long n) {
+
+		check(n);
+		BigInteger big = BigInteger.valueOf(n);
+		return big.multiply(big.add(BigInteger.ONE)).shiftRight(1);
+	}
+
+	// 1^2 + 2^2 + ... + n^2, exactly.
+	public static BigInteger bigSumOfSquares(long n) {
+
+		check(n);
+		BigInteger big = BigInteger.valueOf(n);
+		return big.multiply(big.add(BigInteger.ONE)).multiply(big.shiftLeft(1).add(BigInteger.ONE))
+				.divide(BigInteger.valueOf(6));
+	}
+
+	// 1^3 + 2^3 + ... + n^3, exactly.
+	public static BigInteger bigSumOfCubes(long n) {
+
+		BigInteger s = bigSumOfIntegers(n);
+		return s.multiply(s);
+	}
+
+	// 1^p + 2^p + ... + n^p, exactly, with Faulhaber's formula.
+	public static BigInteger powerSum(long n, int p) {
+
+		check(n);
+		if (p < 0)
+			throw new IllegalArgumentException("Negative power " + p);
+		if (n == 0)
+			return BigInteger.ZERO;
+
+		BigInteger[][] b = bernoulli(p);
+		BigInteger big = BigInteger.valueOf(n);
+
+		// Sum of C(p+1, j) * B(j) * n^(p+1-j) over the common denominator of the B(j).
+		BigInteger den = BigInteger.ONE;
+		for (int j = 0; j <= p; j++)
+			if (b[0][j].signum() != 0)
+				den = lcm(den, b[1][j]);
+
+		BigInteger num = BigInteger.ZERO;
+		BigInteger binomial = BigInteger.ONE; // C(p+1, j)
+		for (int j = 0; j <= p; j++) {
+			BigInteger bj = j == 1 ? b[0][1].negate() : b[0][j]; // B(1) = +1/2 here
+			if (bj.signum() != 0)
+				num = num.add(binomial.multiply(bj).multiply(den.divide(b[1][j])).multiply(big.pow(p + 1 - j)));
+			binomial = binomial.multiply(BigInteger.valueOf(p + 1 - j)).divide(BigInteger.valueOf(j + 1));
+		}
+		return num.divide(den.multiply(BigInteger.valueOf(p + 1)));
+	}
+
+	// 1^p + 2^p + ... + n^p. Throws ArithmeticException if the result does not fit in a long.
+	public static long powerSumExact(long n, int p) {
+
+		switch (p) {
+		case 1:
+			return sumOfIntegers(n);
+		case 2:
+			return sumOfSquares(n);
+		case 3:
+			return sumOfCubes(n);
+		default:
+			return powerSum(n, p).longValueExact();
+		}
+	}
+
+	// B(m) as { numerator, denominator }, with B(1) = -1/2.
+	public static BigInteger[] bernoulliNumber(int m) {
+
+		if (m < 0)
+			throw new IllegalArgumentException("Negative index " + m);
+		BigInteger[][] b = bernoulli(m);
+		return new BigInteger[] { b[0][m], b[1][m] };
+	}
+
+	// first + (first + step) + ... + (first + (count-1) step).
+	// Throws ArithmeticException if the result does not fit in a long.
+	public static long arithmeticSum(long first, long step, long count) {
+
+		check(count);
+		if (count == 0)
+			return 0;
+		try {
+			long pairs = count % 2 == 0 ? Math.multiplyExact(count / 2, count - 1)
+					: Math.multiplyExact(count, (count - 1) / 2); // count(count-1)/2
+			return Math.addExact(Math.multiplyExact(count, first), Math.multiplyExact(step, pairs));
+		} catch (ArithmeticException e) {
+			// The two terms may overflow with opposite signs while their sum fits.
+			return bigArithmeticSum(first, step, count).longValueExact();
+		}
+	}
+
+	// first + (first + step) + ... + (first + (count-1) step), exactly.
+	public static BigInteger bigArithmeticSum(long first, long step, long count) {
+
+		check(count);
+		BigInteger k = BigInteger.valueOf(count);
+		BigInteger pairs = k.multiply(k.subtract(BigInteger.ONE)).shiftRight(1);
+		return k.multiply(BigInteger.valueOf(first)).add(pairs.multiply(BigInteger.valueOf(step)));
+	}
+
+	// first + first * ratio + ... + first * ratio^(count-1).
+	// Throws ArithmeticException if the result does not fit in a long.
+	public static long geometricSum(long first, long ratio, int count) {
+
+		check(count);
+		if (count == 0 || first == 0)
+			return 0;
+		if (ratio == 1)
+			return Math.multiplyExact(first, (long) count);
+		if (ratio == 0)
+			return first;
+		if (ratio == -1)
+			return (count & 1) == 0 ? 0 : first;
+
+		// |ratio| >= 2: the terms double at least at every step, so the loop overflows within 64 terms.
+		// A partial sum that overflows before the last term means the whole sum does too.
+		long sum = first;
+		long term = first;
+		for (int i = 1; i < count; i++) {
+			try {
+				term = Math.multiplyExact(term, ratio);
+			} catch (ArithmeticException e) {
+				if (i < count - 1)
+					throw e;
+				// Only the last term overflows. With a negative ratio the sum can still fit (-1 + 2 - 4 + ... + 2^63),
+				// and ratio^count is only a little over 64 bits here.
+				return bigGeometricSum(first, ratio, count).longValueExact();
+			}
+			sum = Math.addExact(sum, term);
+		}
+		return sum;
+	}
+
+	// first + first * ratio + ... + first * ratio^(count-1), exactly.
+	public static BigInteger bigGeometricSum(long first, long ratio, int count) {
+
+		check(count);
+		BigInteger a = BigInteger.valueOf(first);
+		if (ratio == 1)
+			return a.multiply(BigInteger.valueOf(count));
+
+		BigInteger r = BigInteger.valueOf(ratio);
+		return a.multiply(r.pow(count).subtract(BigInteger.ONE)).divide(r.subtract(BigInteger.ONE));
+	}
+
+	// Sum of all values, wrapping around on overflow.
+	public static long sum(long[] values) {
+		return sum(values, 0, values.length);
+	}
+
+	// Sum of values[from..to), wrapping around on overflow.
+	public static long sum(long[] values, int from, int to) {
+
+		if (from < 0 || from > to || to > values.length)
+			throw new ArrayIndexOutOfBoundsException("Range [" + from + ", " + to + ") of " + values.length);
+
+		long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = from;
+		for (; i + 3 < to; i += 4) {
+			s0 += values[i];
+			s1 += values[i + 1];
+			s2 += values[i + 2];
+			s3 += values[i + 3];
+		}
+		for (; i < to; i++)
+			s0 += values[i];
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	// Sum of all values on the common ForkJoinPool.
+	public static long parallelSum(long[] values) {
+		return parallelSum(values, ForkJoinPool.commonPool());
+	}
+
+	// Sum of all values on pool.
+	public static long parallelSum(long[] values, ForkJoinPool pool) {
+		return pool.invoke(new SumTask(values, 0, values.length));
+	}
+
+	private static final class SumTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] values;
+		private final int from;
+		private final int to;
+
+		SumTask(long[] values, int from, int to) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Long compute() {
+
+			if (to - from < PARALLEL_THRESHOLD)
+				return sum(values, from, to);
+
+			int mid = (from + to) >>> 1;
+			SumTask left = new SumTask(values, from, mid);
+			left.fork();
+			long right = new SumTask(values, mid, to).compute();
+			return left.join() + right;
+		}
+	}
+
+	// The Bernoulli table up to at least m.
+	private static BigInteger[][] bernoulli(int m) {
+
+		BigInteger[][] b = bernoulli;
+		if (m < b[0].length)
+			return b;
+
+		synchronized (Series.class) {
+			b = bernoulli;
+			int have = b[0].length;
+			if (m < have)
+				return b;
+
+			int size = Math.max(m + 1, 2 * have);
+			BigInteger[] num = Arrays.copyOf(b[0], size);
+			BigInteger[] den = Arrays.copyOf(b[1], size);
+
+			for (int k = have; k < size; k++) {
+				// B(k) = -1/(k+1) * sum over i < k of C(k+1, i) B(i)
+				BigInteger sumNum = BigInteger.ZERO;
+				BigInteger sumDen = BigInteger.ONE;
+				BigInteger binomial = BigInteger.ONE; // C(k+1, i)
+				for (int i = 0; i < k; i++) {
+					if (num[i].signum() != 0) {
+						BigInteger termNum = binomial.multiply(num[i]);
+						sumNum = sumNum.multiply(den[i]).add(termNum.multiply(sumDen));
+						sumDen = sumDen.multiply(den[i]);
+						BigInteger g = sumNum.gcd(sumDen);
+						sumNum = sumNum.divide(g);
+						sumDen = sumDen.divide(g);
+					}
+					binomial = binomial.multiply(BigInteger.valueOf(k + 1 - i)).divide(BigInteger.valueOf(i + 1));
+				}
+				BigInteger n = sumNum.negate();
+				BigInteger d = sumDen.multiply(BigInteger.valueOf(k + 1));
+				BigInteger g = n.gcd(d);
+				num[k] = n.divide(g);
+				den[k] = d.divide(g);
+				if (num[k].signum() == 0)
+					den[k] = BigInteger.ONE;
+			}
+
+			b = new BigInteger[][] { num, den };
+			bernoulli = b;
+			return b;
+		}
+	}
+
+	private static BigInteger lcm(BigInteger a, BigInteger b) {
+		return a.divide(a.gcd(b)).multiply(b);
+	}
+
+	private static void check(long n) {
+
+		if (n < 0)
+			throw new IllegalArgumentException("Negative count " + n);
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println(sumOfIntegers(100_000)); // SumOfTheFirstNIntegers.s overflows the stack long before this
+		System.out.println(sumOfSquares(1_000_000) + " " + sumOfCubes(50_000));
+		System.out.println(bigSumOfCubes(Long.MAX_VALUE));
+		System.out.println(powerSum(1000, 10) + " " + Arrays.toString(bernoulliNumber(12)));
+		System.out.println(arithmeticSum(3, 4, 10) + " " + geometricSum(1, 2, 62));
+
+		try {
+			sumOfIntegers(Integer.MAX_VALUE * 4L);
+		} catch (ArithmeticException e) {
+			System.out.println("overflow detected: " + bigSumOfIntegers(Integer.MAX_VALUE * 4L));
+		}
+
+		long[] values = new long[50_000_000];
+		for (int i = 0; i < values.length; i++)
+			values[i] = i;
+		for (int round = 0; round < 3; round++) {
+			long start = System.nanoTime();
+			long s = sum(values);
+			long sequential = System.nanoTime() - start;
+			start = System.nanoTime();
+			long p = parallelSum(values);
+			long parallel = System.nanoTime() - start;
+			System.out.println(s + " in " + sequential / 1_000_000 + " ms, parallel " + p + " in " + parallel / 1_000_000
+					+ " ms (closed form " + sumOfIntegers(values.length - 1) + ")");
+		}
+	}
+
+}
@@ -158,15 +158,38 @@ public class SumOfTheFirstNIntegers {
 	// return 1
 	// 1 + 2 = 3
 	// Recursive evaluation of the sum of the first n integers
+	// The recursion runs on Trampoline, so a large n cannot overflow the thread stack.
 	public static long s (int n) {
-		if (n==0)
+		if (n < 0)
+			throw new IllegalArgumentException("s(" + n + ") makes no progress toward s(0)");
+		return Trampoline.run("SumOfTheFirstNIntegers.s", S, n);
+	}
+	
+	// The same recursion on the thread stack, for comparison; a large n overflows it.
+	public static long recursiveS(int n) {
+		if (n == 0)
 			return 0;
-		/*
-		if (n==1)
-			return 1;
-			*/
-		else
-			return s(n-1) + n;
+		return recursiveS(n - 1) + n;
 	}
+	
+	// s(n) = s(n-1) + n, with s(0) = 0
+	private static final Trampoline.LinearRecursion S = new Trampoline.LinearRecursion() {
+		@Override
+		public boolean isBase(long n) {
+			return n == 0;
+		}
+		@Override
+		public long base(long n) {
+			return 0;
+		}
+		@Override
+		public long next(long n) {
+			return n - 1;
+		}
+		@Override
+		public long combine(long n, long result) {
+			return result + n;
+		}
+	};
 
 }
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/**
+ *
+ * = running recursion without the thread stack =
+ *
+ *  - Factorial.factorial, SumOfTheFirstNIntegers.s, PrintInt.printIntRec and PrintNumber.printDecimal
+ *    all make one recursive call per unit of input and do some work after the call returns:
+ *
+ *      f(n) = base(n)                     if n is a base case
+ *      f(n) = combine(n, f(next(n)))      otherwise
+ *
+ *  - Every pending call is a stack frame, and the thread stack only has room for some thousands of them.
+ *
+ *  - The only thing a pending call needs to remember is its own n: that is its continuation.
+ *    So the runner keeps the continuations itself, on a stack of longs in the heap:
+ *
+ *    1. Going down: while n is not a base case, push n and move on to next(n).
+ *    2. At the bottom: result = base(n).
+ *    3. Coming back up: pop each n and set result = combine(n, result), in the same order the returns would happen.
+ *
+ *  - The stack of longs is kept per thread and reused by every run, so a run allocates nothing once it has grown.
+ *    A deep run grows it past KEPT_FRAMES; when the outermost run ends it goes back to that size,
+ *    so one deep run does not pin a large array to the thread for good.
+ *  - A step may itself start another run on the same thread (reentrancy):
+ *    each run only uses the part of the stack above where it started, and leaves it as it found it.
+ *
+ *  - The depth is limited only by the heap: 8 bytes per pending call instead of a stack frame.
+ *
+ *  - run(routine, f, n) is the driver for routines measured by RecursionMetrics: with instrumentation on,
+ *    a copy of the loop reports every step to a RecursionProbe as a call at its depth.
+ *
+ */
+public final class Trampoline {
+
+	/**
+	 * A recursion that makes one recursive call, f(n) = combine(n, f(next(n))), with f(n) = base(n) in the base case.
+	 * next must make progress toward a base case.
+	 */
+	public interface LinearRecursion {
+
+		boolean isBase(long n);
+
+		long base(long n);
+
+		long next(long n);
+
+		long combine(long n, long result);
+	}
+
+	// Largest stack of continuations kept for a thread between runs.
+	private static final int KEPT_FRAMES = 1 << 10;
+
+	// Pending continuations of the runs on one thread.
+	private static final class Frames {
+
+		long[] items = new long[64];
+		int top;
+
+		void push(long n) {
+			if (top == items.length)
+				items = Arrays.copyOf(items, items.length * 2);
+			items[top++] = n;
+		}
+	}
+
+	private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+	private Trampoline() {
+	}
+
+	// Evaluate f(n) for the recursion f without using the thread stack.
+	public static long run(LinearRecursion f, long n) {
+
+		Frames frames = FRAMES.get();
+		int bottom = frames.top;
+		try {
+			while (!f.isBase(n)) {
+				frames.push(n);
+				n = f.next(n);
+			}
+
+			long result = f.base(n);
+			while (frames.top > bottom) {
+				long pending = frames.items[--frames.top];
+				result = f.combine(pending, result);
+			}
+			return result;
+		} finally {
+			release(frames, bottom);
+		}
+	}
+
+	// Evaluate f(n) as run(f, n) does, measured as one invocation of routine when RecursionMetrics.ENABLED.
+	public static long run(String routine, LinearRecursion f, long n) {
+
+		if (!RecursionMetrics.ENABLED)
+			return run(f, n);
+
+		RecursionProbe probe = RecursionMetrics.begin(routine, n);
+		try {
+			return run(f, n, probe);
+		} finally {
+			probe.end();
+		}
+	}
+
+	// The same loop, reporting each step to probe: the call for n is at depth 1, the call for next(n) at depth 2, ...
+	private static long run(LinearRecursion f, long n, RecursionProbe probe) {
+
+		Frames frames = FRAMES.get();
+		int bottom = frames.top;
+		try {
+			probe.enter(1);
+			while (!f.isBase(n)) {
+				frames.push(n);
+				n = f.next(n);
+				probe.enter(frames.top - bottom + 1);
+			}
+
+			long result = f.base(n);
+			while (frames.top > bottom) {
+				long pending = frames.items[--frames.top];
+				result = f.combine(pending, result);
+			}
+			return result;
+		} finally {
+			release(frames, bottom);
+		}
+	}
+
+	// Drop what a run left above bottom, also after an exception in a step,
+	// and the room a deep run grew once the outermost run is over.
+	private static void release(Frames frames, int bottom) {
+
+		frames.top = bottom;
+		if (bottom == 0 && frames.items.length > KEPT_FRAMES)
+			frames.items = new long[KEPT_FRAMES];
+	}
+
+	// Depth of the continuations kept for this thread right now, for tests and diagnostics.
+	static int pendingFrames() {
+		return FRAMES.get().top;
+	}
+
+	// Room for continuations kept for this thread right now, for tests and diagnostics.
+	static int keptFrames() {
+		return FRAMES.get().items.length;
+	}
+
+	public static void main(String[] args) {
+
+		System.out.println(Factorial.factorial(20) + " " + SumOfTheFirstNIntegers.s(10_000_000));
+		PrintInt.printInt(-40, 3);
+		PrintNumber.printDecimal(1369);
+
+		// Reentrant: every step of the outer run starts an inner run.
+		LinearRecursion sumOfFactorials = new LinearRecursion() {
+			@Override
+			public boolean isBase(long n) {
+				return n == 0;
+			}
+
+			@Override
+			public long base(long n) {
+				return 0;
+			}
+
+			@Override
+			public long next(long n) {
+				return n - 1;
+			}
+
+			@Override
+			public long combine(long n, long result) {
+				return result + Factorial.factorial((int) n);
+			}
+		};
+		System.out.println(run(sumOfFactorials, 20) + ", " + pendingFrames() + " frames left");
+
+		// Same answers as plain recursion, at depths the thread stack can take.
+		boolean same = true;
+		for (int n = 0; n <= 2000; n++)
+			same &= SumOfTheFirstNIntegers.s(n) == SumOfTheFirstNIntegers.recursiveS(n)
+					&& Factorial.factorial(n) == Factorial.recursiveFactorial(n);
+		System.out.println("trampoline matches recursion: " + same);
+
+		// A deep run grows the stack of continuations, and gives the room back when it ends.
+		System.out.println(SumOfTheFirstNIntegers.s(10_000_000) + ", " + keptFrames() + " frames kept");
+
+		// TrampolineBenchmark in the benchmarks module compares the overhead against plain recursion.
+	}
+
+}
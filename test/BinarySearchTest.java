@@ -0,0 +1,84 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// The int, double and char searches are copies of the long one; every copy must give the same answers.
+class BinarySearchTest {
+
+	private static final int NOT_FOUND = -1;
+
+	// Lower bound by linear scan.
+	private static int lowerBound(long[] a, int from, int to, long x) {
+		int i = from;
+		while (i < to && a[i] < x)
+			i++;
+		return i;
+	}
+
+	@Test
+	void everyCopyMatchesTheTemplateAndArraysBinarySearch() {
+
+		SplittableRandom random = new SplittableRandom(1);
+		for (int round = 0; round < 2000; round++) {
+			int n = random.nextInt(40);
+			long[] longs = new long[n];
+			for (int i = 0; i < n; i++)
+				longs[i] = random.nextInt(30); // small range: many duplicates
+			Arrays.sort(longs);
+
+			int[] ints = new int[n];
+			double[] doubles = new double[n];
+			char[] chars = new char[n];
+			for (int i = 0; i < n; i++) {
+				ints[i] = (int) longs[i];
+				doubles[i] = longs[i];
+				chars[i] = (char) longs[i];
+			}
+
+			int from = n == 0 ? 0 : random.nextInt(n + 1);
+			int to = from + random.nextInt(n - from + 1);
+			for (int x = -1; x <= 31; x++) {
+				int expected = lowerBound(longs, from, to, x);
+				assertEquals(expected, BinarySearch.insertionPoint(longs, from, to, x));
+				assertEquals(expected, BinarySearch.insertionPoint(ints, from, to, x));
+				assertEquals(expected, BinarySearch.insertionPoint(doubles, from, to, x));
+				if (x >= 0)
+					assertEquals(expected, BinarySearch.insertionPoint(chars, from, to, (char) x));
+
+				// Found means the same as for Arrays.binarySearch; with duplicates, the first copy is returned.
+				boolean present = Arrays.binarySearch(longs, from, to, x) >= 0;
+				int index = present ? expected : NOT_FOUND;
+				assertEquals(index, BinarySearch.binarySearch(longs, from, to, x));
+				assertEquals(index, BinarySearch.binarySearch(ints, from, to, x));
+				assertEquals(index, BinarySearch.binarySearch(doubles, from, to, x));
+				if (x >= 0)
+					assertEquals(index, BinarySearch.binarySearch(chars, from, to, (char) x));
+			}
+		}
+	}
+
+	@Test
+	void wholeArrayDriversSearchEverything() {
+
+		long[] b = { 1, 3, 4, 5, 6, 7 };
+		assertEquals(4, BinarySearch.binarySearch(b, 6L));
+		assertEquals(NOT_FOUND, BinarySearch.binarySearch(b, 2L));
+		assertEquals(1, BinarySearch.insertionPoint(b, 2L));
+		assertEquals(6, BinarySearch.insertionPoint(b, 8L));
+		assertEquals(3, BinarySearch.binarySearch(new Integer[] { 1, 3, 4, 5, 6, 7 }, 5));
+	}
+
+	@Test
+	void rangesAreChecked() {
+
+		int[] a = new int[4];
+		assertThrows(IllegalArgumentException.class, () -> BinarySearch.insertionPoint(a, 3, 2, 0));
+		assertThrows(ArrayIndexOutOfBoundsException.class, () -> BinarySearch.insertionPoint(a, -1, 2, 0));
+		assertThrows(ArrayIndexOutOfBoundsException.class, () -> BinarySearch.insertionPoint(a, 0, 5, 0));
+	}
+
+}
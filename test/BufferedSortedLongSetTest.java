@@ -0,0 +1,186 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+// Every update must survive the merges that run while it is made.
+class BufferedSortedLongSetTest {
+
+	private static final int WRITERS = 4;
+	private static final int UPDATES = 200_000;
+	private static final int KEYS = 1 << 12;
+
+	private static long[] toArray(TreeSet<Long> oracle) {
+		return oracle.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static boolean isSorted(long[] a) {
+		for (int i = 1; i < a.length; i++)
+			if (a[i - 1] >= a[i])
+				return false;
+		return true;
+	}
+
+	@Test
+	void sequentialUpdatesMatchATreeSet() {
+
+		SplittableRandom random = new SplittableRandom(1);
+		long[] keys = new long[1000];
+		TreeSet<Long> oracle = new TreeSet<>();
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = random.nextInt(KEYS);
+			oracle.add(keys[i]);
+		}
+
+		try (BufferedSortedLongSet set = new BufferedSortedLongSet(keys, 1_000_000)) {
+			for (int i = 0; i < 20_000; i++) {
+				long x = random.nextInt(KEYS);
+				if (random.nextBoolean())
+					assertEquals(oracle.add(x), set.add(x));
+				else
+					assertEquals(oracle.remove(x), set.remove(x));
+				if (i % 997 == 0)
+					set.merge();
+				assertEquals(oracle.contains(x), set.contains(x));
+				assertEquals(oracle.size(), set.size());
+			}
+			assertArrayEquals(toArray(oracle), set.toArray());
+		}
+	}
+
+	@Test
+	void concurrentWritesDuringMergesMatchATreeSet() throws InterruptedException {
+
+		// A low threshold keeps the background merges running, and a thread merges on its own as well.
+		// Writer w only touches keys equal to w modulo WRITERS, so each one can keep its own oracle.
+		try (BufferedSortedLongSet set = new BufferedSortedLongSet(new long[0], 16)) {
+			AtomicInteger mismatches = new AtomicInteger();
+			List<TreeSet<Long>> oracles = new ArrayList<>();
+			List<Thread> writers = new ArrayList<>();
+			for (int w = 0; w < WRITERS; w++) {
+				TreeSet<Long> oracle = new TreeSet<>();
+				oracles.add(oracle);
+				int writer = w;
+				writers.add(new Thread(() -> {
+					SplittableRandom random = new SplittableRandom(writer);
+					for (int i = 0; i < UPDATES; i++) {
+						long x = (long) random.nextInt(KEYS / WRITERS) * WRITERS + writer;
+						boolean add = random.nextInt(3) != 0;
+						boolean expected = add ? oracle.add(x) : oracle.remove(x);
+						boolean changed = add ? set.add(x) : set.remove(x);
+						if (changed != expected || set.contains(x) != oracle.contains(x))
+							mismatches.incrementAndGet();
+					}
+				}));
+			}
+
+			AtomicBoolean done = new AtomicBoolean();
+			AtomicBoolean snapshotsSorted = new AtomicBoolean(true);
+			Thread merger = new Thread(() -> {
+				while (!done.get()) {
+					set.merge();
+					if (!isSorted(set.toArray()))
+						snapshotsSorted.set(false);
+				}
+			});
+
+			merger.start();
+			for (Thread writer : writers)
+				writer.start();
+			for (Thread writer : writers)
+				writer.join();
+			done.set(true);
+			merger.join();
+
+			TreeSet<Long> expected = new TreeSet<>();
+			for (TreeSet<Long> oracle : oracles)
+				expected.addAll(oracle);
+			assertEquals(0, mismatches.get());
+			assertTrue(snapshotsSorted.get());
+			assertArrayEquals(toArray(expected), set.toArray());
+			set.merge();
+			assertArrayEquals(toArray(expected), set.toArray());
+			assertEquals(0, set.pendingUpdates());
+		}
+	}
+
+	@Test
+	void closeStopsTheBackgroundMerges() {
+
+		BufferedSortedLongSet set = new BufferedSortedLongSet(new long[0], 4);
+		set.close();
+		for (int i = 0; i < 100; i++)
+			set.add(i);
+		assertEquals(100, set.pendingUpdates());
+		set.merge();
+		assertEquals(0, set.pendingUpdates());
+		assertEquals(100, set.size());
+	}
+
+	@Test
+	void aQueuedMergeOnlyHoldsAWeakReference() {
+
+		for (Field field : BufferedSortedLongSet.MergeTask.class.getDeclaredFields())
+			if (!Modifier.isStatic(field.getModifiers()))
+				assertEquals(WeakReference.class, field.getType(), field.getName());
+
+		// A high threshold, so that only the tasks below merge.
+		try (BufferedSortedLongSet set = new BufferedSortedLongSet(new long[0], 1_000_000)) {
+			for (int i = 0; i < 100; i++)
+				set.add(i);
+
+			// Once the set is collected the reference is cleared, and the task does nothing.
+			BufferedSortedLongSet.MergeTask dropped = new BufferedSortedLongSet.MergeTask(set);
+			dropped.set.clear();
+			dropped.run();
+			assertEquals(100, set.pendingUpdates());
+
+			new BufferedSortedLongSet.MergeTask(set).run();
+			assertEquals(0, set.pendingUpdates());
+		}
+	}
+
+	@Test
+	void mergingWhileHoldingTheSetsMonitorDoesNotDeadlock() throws InterruptedException {
+
+		// Not closed by try-with-resources: close() would wait for a deadlocked merge instead of failing.
+		BufferedSortedLongSet set = new BufferedSortedLongSet(new long[0], 4);
+		AtomicBoolean done = new AtomicBoolean();
+		Thread merger = new Thread(() -> {
+			while (!done.get())
+				synchronized (set) {
+					set.merge();
+				}
+		});
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < UPDATES; i++)
+				if (i % 3 == 0)
+					set.remove(i % KEYS);
+				else
+					set.add(i % KEYS);
+			done.set(true);
+		});
+		merger.setDaemon(true);
+		writer.setDaemon(true);
+		merger.start();
+		writer.start();
+
+		writer.join(60_000);
+		merger.join(60_000);
+		assertFalse(writer.isAlive() || merger.isAlive(), "deadlocked");
+		set.close();
+	}
+
+}
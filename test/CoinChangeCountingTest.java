@@ -0,0 +1,93 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// Every routine against an exhaustive enumeration of the ways to pay, for small coin sets, counts and amounts.
+class CoinChangeCountingTest {
+
+	private static final int MAX_CHANGE = 60;
+	private static final long P = 7; // small, so that the modular counts wrap
+
+	// ways[cents] and fewest[cents] over every choice of 0..count[j] coins of each value, from coin j on.
+	private static void enumerate(int[] coins, int[] count, int j, int cents, int used, long[] ways, int[] fewest) {
+
+		if (j == coins.length) {
+			ways[cents]++;
+			fewest[cents] = Math.min(fewest[cents], used);
+			return;
+		}
+		for (int s = 0; s <= count[j] && cents + s * coins[j] <= MAX_CHANGE; s++)
+			enumerate(coins, count, j + 1, cents + s * coins[j], used + s, ways, fewest);
+	}
+
+	@Test
+	void boundedAndUnboundedMatchAnEnumeration() {
+
+		SplittableRandom random = new SplittableRandom(15);
+		for (int round = 0; round < 300; round++) {
+			int n = 1 + random.nextInt(4);
+			int[] coins = new int[n];
+			int[] count = new int[n];
+			int[] unlimited = new int[n];
+			for (int j = 0; j < n; j++) {
+				coins[j] = 1 + random.nextInt(12);
+				count[j] = random.nextInt(5);
+				unlimited[j] = MAX_CHANGE / coins[j];
+			}
+
+			long[] ways = new long[MAX_CHANGE + 1];
+			int[] fewest = new int[MAX_CHANGE + 1];
+			Arrays.fill(fewest, CoinChangeCounting.UNREACHABLE);
+			enumerate(coins, count, 0, 0, 0, ways, fewest);
+
+			long[] waysMod = new long[MAX_CHANGE + 1];
+			int[] coinsUsed = new int[MAX_CHANGE + 1];
+			CoinChangeCounting.countWaysBoundedMod(coins, count, n, MAX_CHANGE, P, waysMod);
+			CoinChangeCounting.makeChangeBounded(coins, count, n, MAX_CHANGE, coinsUsed);
+			for (int cents = 0; cents <= MAX_CHANGE; cents++) {
+				assertEquals(ways[cents] % P, waysMod[cents]);
+				assertEquals(fewest[cents], coinsUsed[cents]);
+				assertEquals(BigInteger.valueOf(ways[cents]), CoinChangeCounting.countWaysBounded(coins, count, n, cents));
+			}
+
+			// With as many coins of each value as fit in MAX_CHANGE, the enumeration counts the unbounded ways.
+			Arrays.fill(ways, 0);
+			enumerate(coins, unlimited, 0, 0, 0, ways, fewest);
+			CoinChangeCounting.countWaysMod(coins, n, MAX_CHANGE, P, waysMod);
+			for (int cents = 0; cents <= MAX_CHANGE; cents++) {
+				assertEquals(ways[cents] % P, waysMod[cents]);
+				assertEquals(BigInteger.valueOf(ways[cents]), CoinChangeCounting.countWays(coins, n, cents));
+			}
+		}
+	}
+
+	@Test
+	void badInputIsRejected() {
+
+		int[] coins = { 1, 5 };
+		int[] count = { 3, 2 };
+		long[] ways = new long[11];
+		int[] used = new int[11];
+
+		assertThrows(IllegalArgumentException.class,
+				() -> CoinChangeCounting.countWaysMod(new int[] { 1, 0 }, 2, 10, 7, ways));
+		assertThrows(IllegalArgumentException.class, () -> CoinChangeCounting.countWays(new int[] { -5 }, 1, 10));
+		assertThrows(IllegalArgumentException.class, () -> CoinChangeCounting.countWaysMod(coins, 2, 10, 1, ways));
+		assertThrows(IllegalArgumentException.class, () -> CoinChangeCounting.countWaysMod(coins, 3, 10, 7, ways));
+		assertThrows(IllegalArgumentException.class, () -> CoinChangeCounting.countWays(coins, 2, -1));
+		assertThrows(IllegalArgumentException.class,
+				() -> CoinChangeCounting.countWaysBoundedMod(coins, new int[] { 3, -1 }, 2, 10, 7, ways));
+		assertThrows(IllegalArgumentException.class,
+				() -> CoinChangeCounting.countWaysBounded(coins, new int[] { 3 }, 2, 10));
+		assertThrows(IllegalArgumentException.class,
+				() -> CoinChangeCounting.makeChangeBounded(new int[] { 0, 5 }, count, 2, 10, used));
+		assertThrows(IllegalArgumentException.class,
+				() -> CoinChangeCounting.countWaysBoundedMod(coins, count, 2, 10, 0, ways));
+	}
+
+}